@@ -1,12 +1,106 @@
 package com.magpie.qa;
 
+import com.magpie.qa.analytics.QuoteAnalyticsListener;
+import com.magpie.qa.support.Coalesce;
+import com.magpie.qa.support.Deadline;
+import com.magpie.qa.support.DeadlineHttpClientFactory;
+import com.magpie.qa.support.IncrementalMethodSelector;
+import com.magpie.qa.support.Outcome;
+import com.magpie.qa.support.RunHistoryListener;
+import com.magpie.qa.support.ScenarioBudget;
+import com.magpie.qa.support.ScenarioOutcomeListener;
+import com.magpie.qa.support.SingleFlightFilter;
+import com.magpie.qa.support.UpstreamHealth;
+import com.magpie.qa.support.UpstreamHealthListener;
 import io.restassured.RestAssured;
+import org.testng.IHookCallBack;
+import org.testng.IHookable;
+import org.testng.ITestResult;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeSuite;
+import org.testng.annotations.Listeners;
 
-public class BaseTest {
+import java.lang.reflect.Method;
+
+@Listeners({ScenarioOutcomeListener.class, RunHistoryListener.class, UpstreamHealthListener.class, QuoteAnalyticsListener.class})
+public class BaseTest implements IHookable {
+
+    /**
+     * Base URI of the API under test. Override with -Dmagpie.baseUri=... to point the suite at
+     * staging or at a local stub.
+     */
+    public static final String BASE_URI = System.getProperty("magpie.baseUri", "https://api.magpiefi.xyz");
+
+    /**
+     * Default time budget of one scenario, override per method with {@link ScenarioBudget}.
+     */
+    public static final long DEFAULT_SCENARIO_BUDGET_MS = Long.getLong("scenario.budgetMillis", 30_000);
+
+    // Data-driven invocations may run in parallel on one instance, so the scope is per thread
+    private final ThreadLocal<Deadline.Scope> deadlineScope = new ThreadLocal<>();
+
+    /**
+     * Lets scenarios annotated with {@link Coalesce} share identical in-flight requests.
+     */
+    @BeforeSuite(alwaysRun = true)
+    public void coalesceIdenticalRequests() {
+        if (RestAssured.filters().stream().noneMatch(f -> f instanceof SingleFlightFilter)) {
+            RestAssured.filters(new SingleFlightFilter());
+        }
+    }
 
     @BeforeClass
     public void setup() {
-        RestAssured.baseURI = "https://api.magpiefi.xyz";
+        RestAssured.baseURI = BASE_URI;
+        RestAssured.config = RestAssured.config().httpClient(
+                RestAssured.config().getHttpClientConfig().httpClientFactory(new DeadlineHttpClientFactory()));
+    }
+
+    @BeforeMethod(alwaysRun = true)
+    public void startScenarioDeadline(Method method, ITestResult result) {
+        UpstreamHealth health = UpstreamHealth.current();
+        String outage = health == null ? null : health.hostOutage();
+        if (outage != null) {
+            throw new SkipException("Upstream outage: " + outage);
+        }
+        ScenarioBudget budget = method.getAnnotation(ScenarioBudget.class);
+        Deadline deadline = Deadline.afterMillis(budget != null ? budget.millis() : DEFAULT_SCENARIO_BUDGET_MS);
+        result.setAttribute(Outcome.DEADLINE_ATTRIBUTE, deadline);
+        deadlineScope.set(deadline.enter());
+        SingleFlightFilter.setEnabled(method.isAnnotationPresent(Coalesce.class) || getClass().isAnnotationPresent(Coalesce.class));
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void endScenarioDeadline() {
+        SingleFlightFilter.setEnabled(false);
+        Deadline.Scope scope = deadlineScope.get();
+        if (scope != null) {
+            scope.close();
+            deadlineScope.remove();
+        }
+    }
+
+    /**
+     * Skips data-driven invocations that incremental mode considers up to date. Done here rather
+     * than in a configuration method so that only this invocation is skipped.
+     */
+    @Override
+    public void run(IHookCallBack callBack, ITestResult testResult) {
+        String reason = IncrementalMethodSelector.skipReason(testResult.getTestClass().getRealClass(),
+                testResult.getMethod().getMethodName(), callBack.getParameters());
+        if (reason != null) {
+            throw new SkipException(reason);
+        }
+        callBack.runTestMethod(testResult);
+    }
+
+    /**
+     * Deadline of the scenario running on the current thread.
+     */
+    protected Deadline scenarioDeadline() {
+        return Deadline.current();
     }
 }
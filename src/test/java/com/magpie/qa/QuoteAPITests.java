@@ -1,5 +1,6 @@
 package com.magpie.qa;
 
+import com.magpie.qa.support.Coalesce;
 import io.restassured.filter.log.LogDetail;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -29,6 +30,7 @@ public class QuoteAPITests extends BaseTest {
 
     // --- Positive Test Cases ---
 
+    @Coalesce
     @Test(description = "QUOTE-POS-01: Get a valid quote on Arbitrum")
     public void testGetQuoteValidArbitrum() {
         given()
@@ -192,6 +194,7 @@ public class QuoteAPITests extends BaseTest {
                 .body("amountOut", notNullValue());
     }
 
+    @Coalesce
     @Test(description = "QUOTE-POS-11: Verify full response schema for a successful quote")
     public void testGetQuoteAndValidateFullSchema() {
         given()
@@ -0,0 +1,99 @@
+package com.magpie.qa;
+
+import com.magpie.qa.load.CapacityFinder;
+import com.magpie.qa.load.CapacityReport;
+import com.magpie.qa.support.QuoteClient;
+import com.magpie.qa.support.QuoteRequest;
+import com.magpie.qa.support.StubQuoteServer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ramps closed-loop concurrency on the QUOTE-ASSETS-01 asset pairs plus one cross-chain quote-in
+ * until the latency/error SLO breaks or throughput stops growing. Run with
+ * {@code mvn test -Pcapacity [-Dcapacity.sloP99Millis=2000] [-Dcapacity.maxErrorRate=0.01]
+ * [-Dcapacity.stepSeconds=30] [-Dcapacity.maxConcurrency=64] [-Dcapacity.growth=2]}. Add
+ * {@code -Dcapacity.stub=true} to ramp against a local {@link StubQuoteServer} instead of
+ * {@link BaseTest#BASE_URI}. The curve is written to target/capacity/.
+ * <p>
+ * Not a {@link BaseTest}: the ramp runs for minutes on its own threads and {@link QuoteClient}, so the
+ * per-scenario budget, upstream pre-check, run history and quote analytics do not apply to it.
+ */
+public class QuoteCapacityTests {
+
+    private static final String ARBITRUM_NETWORK = "arbitrum";
+    private static final String OPTIMISM_NETWORK = "optimism";
+    private static final String ARBITRUM_WETH_ADDRESS = "0x82af49447d8a07e3bd95bd0d56f35241523fbab1";
+    private static final String ARBITRUM_USDC_ADDRESS = "0xaf88d065e77c8cc2239327c5edb3a432268e5831";
+    private static final String ARBITRUM_USDT_ADDRESS = "0xFd086bC7CD5C481DCC9C85ebE478A1C0b69FCbb9";
+    private static final String ARBITRUM_WBTC_ADDRESS = "0x2f2a2543B76A4166549F7aaB2e75Bef0aefC5B0f";
+    private static final String ARB_TOKEN_ADDRESS = "0x912CE59144191C1204E64559FE8253a0e49E6548";
+    private static final String NULL_ADDRESS = "0x0000000000000000000000000000000000000000";
+    private static final String OPTIMISM_USDC_ADDRESS = "0x0b2c639c533813f4aa9d7837caf626538d76b516";
+    private static final String DUMMY_WALLET_ADDRESS = "0xd8dA6BF26964aF9D7eEd9e03E53415D37aA96045";
+
+    @Test(description = "LOAD-CAPACITY-01: Maximum quote throughput sustained within the latency and error SLO")
+    public void testMaxSustainableThroughput() throws Exception {
+        long sloP99Millis = Long.getLong("capacity.sloP99Millis", 2_000);
+        double maxErrorRate = Double.parseDouble(System.getProperty("capacity.maxErrorRate", "0.01"));
+        long stepMillis = Long.getLong("capacity.stepSeconds", 30) * 1000;
+        int maxConcurrency = Integer.getInteger("capacity.maxConcurrency", 64);
+        double growth = Double.parseDouble(System.getProperty("capacity.growth", "2"));
+
+        List<QuoteRequest> scenarios = Arrays.asList(
+                assetPair(ARBITRUM_USDC_ADDRESS, ARBITRUM_USDT_ADDRESS, "100000000"),
+                assetPair(ARBITRUM_WBTC_ADDRESS, ARBITRUM_WETH_ADDRESS, "1000000"),
+                assetPair(ARB_TOKEN_ADDRESS, ARBITRUM_WETH_ADDRESS, "100000000000000000000"),
+                assetPair(ARBITRUM_USDC_ADDRESS, ARBITRUM_WETH_ADDRESS, "100000000"),
+                assetPair(NULL_ADDRESS, ARB_TOKEN_ADDRESS, "100000000000000000"),
+                QuoteRequest.quoteIn()
+                        .param("fromNetwork", ARBITRUM_NETWORK)
+                        .param("toNetwork", OPTIMISM_NETWORK)
+                        .param("fromTokenAddress", ARBITRUM_USDC_ADDRESS)
+                        .param("toTokenAddress", OPTIMISM_USDC_ADDRESS)
+                        .param("sellAmount", "10000000")
+                        .param("slippageIn", 0.5)
+                        .param("slippageOut", 0.5)
+                        .param("gasless", false)
+                        .param("fromAddress", DUMMY_WALLET_ADDRESS)
+                        .param("toAddress", DUMMY_WALLET_ADDRESS)
+                        .build());
+
+        CapacityReport report;
+        // The stub stands in for a deployment with 16 workers and a 5ms service time
+        try (StubQuoteServer stub = Boolean.getBoolean("capacity.stub") ? StubQuoteServer.start(16) : null) {
+            String baseUri = BaseTest.BASE_URI;
+            if (stub != null) {
+                stub.setResponseDelayMillis(5);
+                baseUri = stub.getBaseUri();
+            }
+            report = new CapacityFinder(new QuoteClient(baseUri), scenarios, sloP99Millis, maxErrorRate)
+                    .ramp(1, maxConcurrency, growth)
+                    .stepMillis(stepMillis, stepMillis / 6)
+                    .find();
+        }
+        System.out.println(report);
+
+        Path curve = Paths.get("target", "capacity", "capacity-" + System.currentTimeMillis() + ".csv");
+        report.writeCsv(curve);
+        System.out.println("INFO: throughput/latency curve in " + curve);
+
+        Assert.assertTrue(report.getMaxSustainableRps() > 0, "Not even one user stays within the SLO:\n" + report);
+    }
+
+    private static QuoteRequest assetPair(String fromToken, String toToken, String sellAmount) {
+        return QuoteRequest.quote()
+                .param("network", ARBITRUM_NETWORK)
+                .param("fromTokenAddress", fromToken)
+                .param("toTokenAddress", toToken)
+                .param("sellAmount", sellAmount)
+                .param("slippage", 0.5)
+                .param("gasless", false)
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.magpie.qa;
+
+import com.magpie.qa.load.DistributedLoadReport;
+import com.magpie.qa.load.LoadCoordinator;
+import com.magpie.qa.load.LoadPlan;
+import com.magpie.qa.support.QuoteRequest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Drives quote and quote-in traffic against {@link BaseTest#BASE_URI} from several worker JVMs. Run with
+ * {@code mvn test -Pdistributed [-Dload.rps=20] [-Dload.durationSeconds=60] [-Dload.localWorkers=4]}.
+ * To add workers on other hosts, set {@code -Dload.remoteWorkers=N -Dload.port=7070} and start
+ * {@link com.magpie.qa.load.LoadWorker} on each of them against this host and port.
+ * <p>
+ * Not a {@link BaseTest}: the traffic comes from the worker JVMs, and the run plus the worker join
+ * outlasts any scenario budget.
+ */
+public class QuoteDistributedLoadTests {
+
+    private static final String ARBITRUM_NETWORK = "arbitrum";
+    private static final String OPTIMISM_NETWORK = "optimism";
+    private static final String ARBITRUM_WETH_ADDRESS = "0x82af49447d8a07e3bd95bd0d56f35241523fbab1";
+    private static final String ARBITRUM_USDC_ADDRESS = "0xaf88d065e77c8cc2239327c5edb3a432268e5831";
+    private static final String OPTIMISM_USDC_ADDRESS = "0x0b2c639c533813f4aa9d7837caf626538d76b516";
+    private static final String DUMMY_WALLET_ADDRESS = "0xd8dA6BF26964aF9D7eEd9e03E53415D37aA96045";
+
+    @Test(description = "LOAD-DIST-01: Merged latency of quote/quote-in traffic generated by several worker JVMs")
+    public void testDistributedQuoteLoad() throws Exception {
+        double rate = Double.parseDouble(System.getProperty("load.rps", "20"));
+        long durationMillis = Long.getLong("load.durationSeconds", 60) * 1000;
+        int maxInFlight = Integer.getInteger("load.maxInFlight", 64);
+        int localWorkers = Integer.getInteger("load.localWorkers", 4);
+        int remoteWorkers = Integer.getInteger("load.remoteWorkers", 0);
+
+        List<QuoteRequest> scenarios = Arrays.asList(
+                QuoteRequest.quote()
+                        .param("network", ARBITRUM_NETWORK)
+                        .param("fromTokenAddress", ARBITRUM_WETH_ADDRESS)
+                        .param("toTokenAddress", ARBITRUM_USDC_ADDRESS)
+                        .param("sellAmount", "1000000000000000000")
+                        .param("slippage", 0.5)
+                        .param("gasless", false)
+                        .build(),
+                QuoteRequest.quoteIn()
+                        .param("fromNetwork", ARBITRUM_NETWORK)
+                        .param("toNetwork", OPTIMISM_NETWORK)
+                        .param("fromTokenAddress", ARBITRUM_USDC_ADDRESS)
+                        .param("toTokenAddress", OPTIMISM_USDC_ADDRESS)
+                        .param("sellAmount", "10000000")
+                        .param("slippageIn", 0.5)
+                        .param("slippageOut", 0.5)
+                        .param("gasless", false)
+                        .param("fromAddress", DUMMY_WALLET_ADDRESS)
+                        .param("toAddress", DUMMY_WALLET_ADDRESS)
+                        .build());
+        LoadPlan plan = new LoadPlan(BaseTest.BASE_URI, scenarios, rate, durationMillis, maxInFlight);
+
+        LoadCoordinator coordinator = remoteWorkers > 0
+                ? new LoadCoordinator(InetAddress.getByName("0.0.0.0"), Integer.getInteger("load.port", 0))
+                : LoadCoordinator.onLoopback();
+        DistributedLoadReport report;
+        try {
+            System.out.println("INFO: coordinator listening on port " + coordinator.getPort()
+                    + ", waiting for " + localWorkers + " local and " + remoteWorkers + " remote workers");
+            coordinator.spawnLocalWorkers(localWorkers);
+            report = coordinator.run(plan, localWorkers + remoteWorkers, 120_000);
+        } finally {
+            coordinator.close();
+        }
+        System.out.println(report);
+
+        Assert.assertTrue(report.isComplete(), "Not every worker finished:\n" + report);
+        Assert.assertEquals(report.getSent(), plan.getArrivals(), "Workers did not send the planned arrivals");
+    }
+}
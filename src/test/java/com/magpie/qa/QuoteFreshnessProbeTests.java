@@ -0,0 +1,57 @@
+package com.magpie.qa;
+
+import com.magpie.qa.load.FreshnessReport;
+import com.magpie.qa.load.QuoteFreshnessProbe;
+import com.magpie.qa.load.QuoteTimeSeries;
+import com.magpie.qa.support.QuoteClient;
+import com.magpie.qa.support.QuoteRequest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the QUOTE-POS-01 scenario (Arbitrum WETH -> USDC) at high frequency to measure how often
+ * amountOut and the quote id change. Run with
+ * {@code mvn test -Pprobe [-Dprobe.intervalMillis=500] [-Dprobe.durationSeconds=300] [-Dprobe.stalenessTarget=0.05]}.
+ * The raw series is written to target/freshness/.
+ * <p>
+ * Not a {@link BaseTest}: the probe polls for minutes, so under the default scenario budget any failure
+ * would be reported as a timeout.
+ */
+public class QuoteFreshnessProbeTests {
+
+    private static final String ARBITRUM_NETWORK = "arbitrum";
+    private static final String ARBITRUM_WETH_ADDRESS = "0x82af49447d8a07e3bd95bd0d56f35241523fbab1";
+    private static final String ARBITRUM_USDC_ADDRESS = "0xaf88d065e77c8cc2239327c5edb3a432268e5831";
+    private static final String DEFAULT_SELL_AMOUNT = "1000000000000000000"; // 1 WETH
+
+    @Test(description = "PROBE-FRESHNESS-01: Measure amountOut change rate for a repeatedly polled Arbitrum quote")
+    public void testQuoteFreshnessArbitrum() throws Exception {
+        long intervalMillis = Long.getLong("probe.intervalMillis", 500);
+        long durationSeconds = Long.getLong("probe.durationSeconds", 300);
+        double stalenessTarget = Double.parseDouble(System.getProperty("probe.stalenessTarget", "0.05"));
+
+        QuoteRequest request = QuoteRequest.quote()
+                .param("network", ARBITRUM_NETWORK)
+                .param("fromTokenAddress", ARBITRUM_WETH_ADDRESS)
+                .param("toTokenAddress", ARBITRUM_USDC_ADDRESS)
+                .param("sellAmount", DEFAULT_SELL_AMOUNT)
+                .param("slippage", 0.5)
+                .param("gasless", false)
+                .build();
+
+        QuoteTimeSeries series = new QuoteFreshnessProbe(new QuoteClient(BaseTest.BASE_URI), request, intervalMillis)
+                .poll(TimeUnit.SECONDS.toMillis(durationSeconds));
+        Path csv = Paths.get("target", "freshness", "quote-arbitrum-weth-usdc.csv");
+        series.writeCsv(csv);
+
+        FreshnessReport report = FreshnessReport.of(series, stalenessTarget, intervalMillis);
+        System.out.println(report);
+        System.out.println("Time series written to " + csv.toAbsolutePath());
+
+        Assert.assertTrue(report.getSuccesses() > 1, "Too few successful polls to measure freshness");
+    }
+}
@@ -1,5 +1,10 @@
 package com.magpie.qa;
 
+import com.magpie.qa.support.Deadline;
+import com.magpie.qa.support.DeadlineExceededException;
+import com.magpie.qa.support.Outcome;
+import com.magpie.qa.support.Retry;
+import com.magpie.qa.support.ScenarioBudget;
 import io.restassured.filter.log.LogDetail;
 import io.restassured.response.Response;
 import org.testng.Assert;
@@ -28,30 +33,50 @@ public class QuoteInAPITests extends BaseTest {
 
     // --- Positive Test Cases ---
 
+    @ScenarioBudget(millis = 60_000)
     @Test(description = "QUOTE-IN-POS-01: Find a working cross-chain route by probing different bridge types")
     public void testFindWorkingCrossChainRoute() {
         // This test probes for a working bridge for a common route (Arbitrum USDC -> Optimism USDC).
         // It uses the correct destination token address and iterates through bridges.
         List<String> bridgeTypesToTest = Arrays.asList("0", "1", "2", "3", "4"); // Wormhole, Stargate, Celer, CCTP, Symbiosis
         boolean success = false;
+        boolean timedOut = false;
 
-        for (String bridgeType : bridgeTypesToTest) {
+        for (int i = 0; i < bridgeTypesToTest.size(); i++) {
+            String bridgeType = bridgeTypesToTest.get(i);
             System.out.println("Probing cross-chain route with bridgeType: " + bridgeType);
 
-            Response response = given()
-                    .param("fromNetwork", ARBITRUM_NETWORK)
-                    .param("toNetwork", OPTIMISM_NETWORK)
-                    .param("fromTokenAddress", ARBITRUM_USDC_ADDRESS)
-                    .param("toTokenAddress", OPTIMISM_USDC_ADDRESS) // Using the CORRECT address for the destination chain
-                    .param("sellAmount", "10000000") // 10 USDC
-                    .param("slippageIn", 0.5)
-                    .param("slippageOut", 0.5)
-                    .param("gasless", false)
-                    .param("bridgeTypes", bridgeType)
-                    .param("fromAddress", DUMMY_WALLET_ADDRESS)
-                    .param("toAddress", DUMMY_WALLET_ADDRESS)
-                    .when()
-                    .get(QUOTE_IN_ENDPOINT);
+            // Each remaining probe gets an equal share of what is left of the scenario budget,
+            // and a retry on transport errors is paid for out of that share
+            Deadline probeDeadline = scenarioDeadline().slice(bridgeTypesToTest.size() - i);
+            Response response;
+            try {
+                response = Retry.withinDeadline(probeDeadline, 2, () -> {
+                    Response attempt = given()
+                            .param("fromNetwork", ARBITRUM_NETWORK)
+                            .param("toNetwork", OPTIMISM_NETWORK)
+                            .param("fromTokenAddress", ARBITRUM_USDC_ADDRESS)
+                            .param("toTokenAddress", OPTIMISM_USDC_ADDRESS) // Using the CORRECT address for the destination chain
+                            .param("sellAmount", "10000000") // 10 USDC
+                            .param("slippageIn", 0.5)
+                            .param("slippageOut", 0.5)
+                            .param("gasless", false)
+                            .param("bridgeTypes", bridgeType)
+                            .param("fromAddress", DUMMY_WALLET_ADDRESS)
+                            .param("toAddress", DUMMY_WALLET_ADDRESS)
+                            .when()
+                            .get(QUOTE_IN_ENDPOINT);
+                    attempt.asByteArray(); // Read the body while this attempt's deadline still applies
+                    return attempt;
+                });
+            } catch (RuntimeException e) {
+                if (!Outcome.isTimeout(e)) {
+                    throw e;
+                }
+                System.out.println("INFO: bridgeType " + bridgeType + " timed out: " + e.getMessage());
+                timedOut = true;
+                continue;
+            }
 
             if (response.getStatusCode() == 200) {
                 System.out.println("SUCCESS: Found a working route with bridgeType: " + bridgeType);
@@ -67,6 +92,10 @@ public class QuoteInAPITests extends BaseTest {
         }
 
         if (!success) {
+            if (timedOut) {
+                // Not a verdict on the API: some bridges were never actually evaluated
+                throw new DeadlineExceededException("Could not find a working cross-chain bridge route before some probes timed out.");
+            }
             // This assertion now correctly represents a critical bug if it fails.
             Assert.fail("Critical Bug: Could not find any working cross-chain bridge route for a valid USDC -> USDC request.");
         }
@@ -0,0 +1,55 @@
+package com.magpie.qa;
+
+import com.magpie.qa.load.ReplayDriver;
+import com.magpie.qa.load.ReplayReport;
+import com.magpie.qa.load.ResultsLog;
+import com.magpie.qa.load.ResultsSummary;
+import com.magpie.qa.support.QuoteClient;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Replays a production traffic capture against {@link BaseTest#BASE_URI}. Run with
+ * {@code mvn test -Preplay -Dreplay.file=quotes.jsonl [-Dreplay.speed=1.0] [-Dreplay.maxInFlight=64]}.
+ * Every request is also written to a binary results log under {@code target/results/}, summarised
+ * next to it as CSV and JSON.
+ * <p>
+ * Not a {@link BaseTest}: a replay lasts as long as the capture, far beyond a scenario budget, and its
+ * requests go through {@link QuoteClient} rather than the scenario filters.
+ */
+public class QuoteReplayTests {
+
+    private static final Path RESULTS_DIR = Paths.get("target", "results");
+
+    @Test(description = "LOAD-REPLAY-01: Replay captured quote/quote-in traffic with its original timing")
+    public void testReplayCapturedTraffic() throws Exception {
+        String file = System.getProperty("replay.file");
+        if (file == null) {
+            throw new SkipException("No capture configured, set -Dreplay.file=<path>");
+        }
+        Path capture = Paths.get(file);
+        Assert.assertTrue(Files.isReadable(capture), "Capture file is not readable: " + capture);
+
+        double speed = Double.parseDouble(System.getProperty("replay.speed", "1.0"));
+        int maxInFlight = Integer.getInteger("replay.maxInFlight", 64);
+
+        Path log = RESULTS_DIR.resolve("replay-" + System.currentTimeMillis() + ".results");
+        ReplayReport report;
+        try (ResultsLog results = ResultsLog.create(log)) {
+            report = new ReplayDriver(new QuoteClient(BaseTest.BASE_URI), speed, maxInFlight).recordTo(results).replay(capture);
+        }
+        System.out.println(report);
+
+        ResultsSummary summary = ResultsSummary.of(log);
+        summary.writeCsv(Paths.get(log + ".summary.csv"));
+        summary.writeJson(Paths.get(log + ".summary.json"));
+        System.out.println("INFO: per-request results in " + log);
+
+        Assert.assertTrue(report.getRequestCount() > 0, "Capture contained no quote or quote-in requests");
+    }
+}
@@ -0,0 +1,302 @@
+package com.magpie.qa;
+
+import com.magpie.qa.support.Deadline;
+import com.magpie.qa.support.DeadlineExceededException;
+import com.magpie.qa.support.DeadlineHttpClientFactory;
+import com.magpie.qa.support.FaultInjectingProxy;
+import com.magpie.qa.support.FaultProfile;
+import com.magpie.qa.support.Outcome;
+import com.magpie.qa.support.Retry;
+import com.magpie.qa.support.StubQuoteServer;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.log.LogDetail;
+import io.restassured.response.Response;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Exercises the quote flow through a {@link FaultInjectingProxy} in front of a local stub, so slow or
+ * lossy network behaviour can be asserted deterministically. The same hooks work against the real
+ * API: build the proxy with {@code FaultInjectingProxy.forBaseUri(BASE_URI)}.
+ */
+public class QuoteResilienceTests {
+
+    private static final String QUOTE_ENDPOINT = "/aggregator/quote";
+    private static final int SOCKET_TIMEOUT_MS = 1000;
+
+    // Timeouts derived from the thread's Deadline, as installed for every scenario by BaseTest
+    private static final RestAssuredConfig DEADLINE_CONFIG = RestAssuredConfig.config()
+            .httpClient(HttpClientConfig.httpClientConfig().httpClientFactory(new DeadlineHttpClientFactory()));
+
+    private StubQuoteServer stub;
+    private FaultInjectingProxy proxy;
+
+    @BeforeClass
+    public void startProxy() throws IOException {
+        stub = StubQuoteServer.start();
+        proxy = FaultInjectingProxy.forBaseUri(stub.getBaseUri());
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void clearFaults() {
+        proxy.clearFaults();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopProxy() {
+        proxy.close();
+        stub.close();
+    }
+
+    @Test(description = "RESILIENCE-01: Injected latency is added to the quote response time")
+    public void testQuoteWithInjectedLatency() {
+        proxy.inject(FaultProfile.none().withLatencyMillis(300));
+
+        long start = System.nanoTime();
+        quoteRequest()
+                .then()
+                .log().ifValidationFails(LogDetail.ALL)
+                .statusCode(200)
+                .body("amountOut", notNullValue());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        Assert.assertTrue(elapsedMs >= 300, "Latency was not injected, elapsed " + elapsedMs + "ms");
+    }
+
+    @Test(description = "RESILIENCE-02: A hung response fails with a read timeout within budget")
+    public void testQuoteReadTimeoutWithinBudget() {
+        proxy.inject(FaultProfile.none().withLatencyMillis(10_000));
+
+        long start = System.nanoTime();
+        Throwable failure = expectFailure();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        Assert.assertTrue(hasCause(failure, SocketTimeoutException.class), "Expected a read timeout but got " + failure);
+        // One timeout plus at most a few automatic client retries, never the full injected delay
+        Assert.assertTrue(elapsedMs < 10_000, "Timeout took " + elapsedMs + "ms");
+    }
+
+    @Test(description = "RESILIENCE-03: A slow-drip response defeats a per-read socket timeout")
+    public void testSlowDripIsNotCaughtBySocketTimeout() {
+        // Each chunk arrives well within the socket timeout, so the request as a whole outlives it
+        proxy.inject(FaultProfile.none().withSlowDrip(64, 150));
+
+        long start = System.nanoTime();
+        quoteRequest()
+                .then()
+                .log().ifValidationFails(LogDetail.ALL)
+                .statusCode(200);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        Assert.assertTrue(elapsedMs > SOCKET_TIMEOUT_MS, "Response was not dripped, elapsed " + elapsedMs + "ms");
+    }
+
+    @Test(description = "RESILIENCE-04: A connection reset surfaces as a transport error, not a hang")
+    public void testConnectionResetFailsFast() {
+        proxy.inject(FaultProfile.none().withResetAfterBytes(0));
+
+        long start = System.nanoTime();
+        Throwable failure = expectFailure();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        Assert.assertTrue(hasCause(failure, IOException.class), "Expected an I/O failure but got " + failure);
+        Assert.assertTrue(elapsedMs < SOCKET_TIMEOUT_MS, "Reset took " + elapsedMs + "ms to surface");
+    }
+
+    @Test(description = "RESILIENCE-05: A truncated response body is detected")
+    public void testTruncatedResponseIsDetected() {
+        // Enough for the status line and headers, not for the JSON body
+        proxy.inject(FaultProfile.none().withTruncateAfterBytes(200));
+
+        Throwable failure = expectFailure();
+
+        Assert.assertTrue(hasCause(failure, IOException.class), "Expected an I/O failure but got " + failure);
+    }
+
+    @Test(description = "RESILIENCE-06: A bandwidth cap slows the transfer proportionally")
+    public void testBandwidthCap() {
+        proxy.inject(FaultProfile.none().withBandwidth(2048));
+
+        long start = System.nanoTime();
+        Response response = quoteRequest();
+        // RestAssured may hand back the response before the body has arrived
+        int bodyBytes = response.asByteArray().length;
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        response.then().statusCode(200);
+        long expectedMs = bodyBytes * 1000L / 2048;
+        Assert.assertTrue(elapsedMs >= expectedMs, "Elapsed " + elapsedMs + "ms, expected at least " + expectedMs + "ms");
+    }
+
+    @Test(description = "RESILIENCE-07: A retry after a failed attempt succeeds within the overall budget")
+    public void testRetryAfterResetSucceedsWithinBudget() {
+        proxy.inject(FaultProfile.none().withResetAfterBytes(0).forFirstConnections(2));
+
+        long budgetMs = 3 * SOCKET_TIMEOUT_MS;
+        AtomicInteger attempts = new AtomicInteger();
+        long faultedBefore = proxy.getFaultedConnectionCount();
+        long start = System.nanoTime();
+        // The deadline-aware client makes no retries of its own, so each attempt is one connection
+        Response response = Retry.withinDeadline(Deadline.afterMillis(budgetMs), 3, () -> {
+            attempts.incrementAndGet();
+            Response attempt = quoteRequest(DEADLINE_CONFIG);
+            attempt.asByteArray();
+            return attempt;
+        });
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        response.then().statusCode(200).body("amountOut", notNullValue());
+        Assert.assertEquals(proxy.getFaultedConnectionCount() - faultedBefore, 2, "Both faulted connections should have been attempted");
+        Assert.assertEquals(attempts.get(), 3);
+        Assert.assertTrue(elapsedMs < budgetMs, "Retries took " + elapsedMs + "ms");
+    }
+
+    @Test(description = "RESILIENCE-08: A scenario deadline stops a slow-drip response that a socket timeout misses")
+    public void testDeadlineStopsSlowDrip() {
+        proxy.inject(FaultProfile.none().withSlowDrip(64, 150));
+
+        long start = System.nanoTime();
+        Deadline.Scope scope = Deadline.afterMillis(500).enter();
+        try {
+            Throwable failure = expectFailure(DEADLINE_CONFIG);
+            Assert.assertTrue(Outcome.isTimeout(failure, true), "Expected a timeout outcome but got " + failure);
+        } finally {
+            scope.close();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        Assert.assertTrue(elapsedMs < 500 + 250, "Deadline of 500ms was overrun: " + elapsedMs + "ms");
+    }
+
+    @Test(description = "RESILIENCE-09: Retries share one deadline, so a hung first attempt leaves time for the next")
+    public void testRetriesSplitScenarioBudget() {
+        proxy.inject(FaultProfile.none().withLatencyMillis(10_000).forFirstConnections(1));
+
+        long budgetMs = 2_000;
+        long start = System.nanoTime();
+        Response response = Retry.withinDeadline(Deadline.afterMillis(budgetMs), 2, () -> {
+            Response attempt = quoteRequest(DEADLINE_CONFIG);
+            attempt.asByteArray();
+            return attempt;
+        });
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        response.then().statusCode(200).body("amountOut", notNullValue());
+        // The first attempt may only use half of the budget before the second one starts
+        Assert.assertTrue(elapsedMs >= budgetMs / 2 && elapsedMs < budgetMs, "Retry took " + elapsedMs + "ms");
+    }
+
+    @Test(description = "RESILIENCE-10: An exhausted budget is reported as a timeout, not an assertion failure")
+    public void testExhaustedBudgetIsClassifiedAsTimeout() {
+        proxy.inject(FaultProfile.none().withLatencyMillis(10_000));
+
+        Deadline deadline = Deadline.afterMillis(600);
+        try {
+            Retry.withinDeadline(deadline, 3, () -> quoteRequest(DEADLINE_CONFIG).asByteArray());
+            Assert.fail("Expected every attempt to time out");
+        } catch (DeadlineExceededException e) {
+            Assert.assertTrue(Outcome.isTimeout(e));
+        }
+        Assert.assertTrue(deadline.isExpired() || deadline.remainingMillis() < 100, deadline.toString());
+    }
+
+    @Test(description = "RESILIENCE-11: A completed request cancels its deadline watchdog")
+    public void testCompletedRequestCancelsWatchdog() {
+        int pending = DeadlineHttpClientFactory.pendingWatchdogs();
+        Deadline.Scope scope = Deadline.afterMillis(60_000).enter();
+        try {
+            for (int i = 0; i < 5; i++) {
+                quoteRequest(DEADLINE_CONFIG).then().statusCode(200).body("amountOut", notNullValue());
+            }
+        } finally {
+            scope.close();
+        }
+
+        Assert.assertTrue(DeadlineHttpClientFactory.pendingWatchdogs() <= pending,
+                DeadlineHttpClientFactory.pendingWatchdogs() + " watchdogs still pending");
+    }
+
+    @Test(description = "RESILIENCE-12: Only transport failures and timeouts are retried")
+    public void testRetrySkipsNonTransportFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            Retry.withinDeadline(Deadline.afterMillis(5_000), 3, () -> {
+                attempts.incrementAndGet();
+                throw new IllegalArgumentException("bad request spec");
+            });
+            Assert.fail("Expected the failure to be rethrown");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals(attempts.get(), 1);
+        }
+
+        attempts.set(0);
+        try {
+            Retry.withinDeadline(Deadline.afterMillis(5_000), 3, () -> {
+                attempts.incrementAndGet();
+                throw new SkipException("upstream down");
+            });
+            Assert.fail("Expected the skip to be rethrown");
+        } catch (SkipException e) {
+            Assert.assertEquals(attempts.get(), 1);
+        }
+    }
+
+    private Response quoteRequest() {
+        return quoteRequest(RestAssuredConfig.config().httpClient(HttpClientConfig.httpClientConfig()
+                .setParam("http.connection.timeout", SOCKET_TIMEOUT_MS)
+                .setParam("http.socket.timeout", SOCKET_TIMEOUT_MS)));
+    }
+
+    private Response quoteRequest(RestAssuredConfig config) {
+        return given()
+                .spec(proxy.requestSpecification())
+                .config(config)
+                .param("network", "arbitrum")
+                .param("fromTokenAddress", "0x82af49447d8a07e3bd95bd0d56f35241523fbab1")
+                .param("toTokenAddress", "0xaf88d065e77c8cc2239327c5edb3a432268e5831")
+                .param("sellAmount", "1000000000000000000")
+                .param("slippage", 0.5)
+                .param("gasless", false)
+                .when()
+                .get(QUOTE_ENDPOINT);
+    }
+
+    private Throwable expectFailure() {
+        return expectFailure(null);
+    }
+
+    private Throwable expectFailure(RestAssuredConfig config) {
+        try {
+            Response response = config == null ? quoteRequest() : quoteRequest(config);
+            // The body is streamed lazily, so read it to surface failures mid-body
+            response.asByteArray();
+            Assert.fail("Expected the request to fail but got status " + response.getStatusCode());
+            return null;
+        } catch (AssertionError e) {
+            throw e;
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    private static boolean hasCause(Throwable failure, Class<? extends Throwable> type) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (type.isInstance(t)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
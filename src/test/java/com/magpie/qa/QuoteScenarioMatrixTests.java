@@ -0,0 +1,58 @@
+package com.magpie.qa;
+
+import com.magpie.qa.scenario.ExpectedOutcome;
+import com.magpie.qa.scenario.QuoteScenario;
+import com.magpie.qa.scenario.QuoteScenarios;
+import io.restassured.filter.log.LogDetail;
+import io.restassured.response.ValidatableResponse;
+import io.restassured.specification.RequestSpecification;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Quote scenarios generated from {@link QuoteScenarios} so every t-wise combination of optional
+ * features is exercised at least once, instead of hand-picking combinations. Strength and seed can
+ * be changed with {@code -Dscenarios.strength=3 -Dscenarios.seed=42}; the DataProvider runs in
+ * parallel with the suite's {@code data-provider-thread-count}.
+ */
+public class QuoteScenarioMatrixTests extends BaseTest {
+
+    private static final int STRENGTH = Integer.getInteger("scenarios.strength", 2);
+    private static final long SEED = Long.getLong("scenarios.seed", 1L);
+
+    @DataProvider(name = "generatedScenarios", parallel = true)
+    public Object[][] generatedScenarios() {
+        List<QuoteScenario> scenarios = QuoteScenarios.arbitrumWethToUsdc().generate(STRENGTH, SEED);
+        Object[][] data = new Object[scenarios.size()][];
+        for (int i = 0; i < scenarios.size(); i++) {
+            data[i] = new Object[] {scenarios.get(i)};
+        }
+        return data;
+    }
+
+    @Test(description = "QUOTE-GEN-01: Generated feature combinations produce their expected outcome class",
+            dataProvider = "generatedScenarios")
+    public void testGeneratedScenario(QuoteScenario scenario) {
+        RequestSpecification request = given();
+        for (Map.Entry<String, List<String>> param : scenario.getRequest().getParams().entrySet()) {
+            request.queryParam(param.getKey(), param.getValue());
+        }
+
+        ValidatableResponse response = request
+                .when()
+                .get(scenario.getRequest().getEndpoint())
+                .then()
+                .log().ifValidationFails(LogDetail.ALL)
+                .statusCode(scenario.getExpected().getStatusCode());
+
+        if (scenario.getExpected() == ExpectedOutcome.QUOTE) {
+            response.body("amountOut", notNullValue());
+        }
+    }
+}
@@ -0,0 +1,684 @@
+package com.magpie.qa.analytics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Gas and fee analytics over recorded {@link QuoteSample}s, grouped by route and segment (standard,
+ * gasless, RFQ):
+ * <ul>
+ *     <li>distributions of gasLimit, total fee and effective price, over every recorded run;</li>
+ *     <li>gasless vs non-gasless and RFQ vs non-RFQ comparisons of the latest run, per route and sell
+ *     amount;</li>
+ *     <li>outliers of the latest run by modified z-score (median and MAD, so one bad value cannot
+ *     hide itself by inflating the spread);</li>
+ *     <li>gas regressions: the latest run's median gasLimit above the earlier runs' median by more
+ *     than {@code -Dquote.analytics.regression} (default 0.2, i.e. 20%).</li>
+ * </ul>
+ * Effective price is amountOut per unit sold, in base units. Fee values are taken as USD, as the API
+ * reports them; the net-of-fee price deducts them from amountOut wherever the output token's USD
+ * price is known ({@link #STABLECOINS} by default) and is left empty otherwise. All arithmetic is
+ * BigInteger/BigDecimal, so wei-sized amounts are exact.
+ */
+public class FeeAnalytics {
+
+    public static final BigDecimal DEFAULT_REGRESSION_THRESHOLD = new BigDecimal(System.getProperty("quote.analytics.regression", "0.2"));
+
+    /** USD price and decimals of the stablecoins the suite quotes into, by lower-case address. */
+    public static final Map<String, TokenPrice> STABLECOINS;
+
+    static {
+        Map<String, TokenPrice> prices = new HashMap<>();
+        prices.put("0xaf88d065e77c8cc2239327c5edb3a432268e5831", new TokenPrice(6, BigDecimal.ONE)); // USDC, Arbitrum
+        prices.put("0xfd086bc7cd5c481dcc9c85ebe478a1c0b69fcbb9", new TokenPrice(6, BigDecimal.ONE)); // USDT, Arbitrum
+        prices.put("0xa0b86991c6218b36c1d19d4a2e9eb0ce3606eb48", new TokenPrice(6, BigDecimal.ONE)); // USDC, Ethereum
+        prices.put("0x0b2c639c533813f4aa9d7837caf626538d76b516", new TokenPrice(6, BigDecimal.ONE)); // USDC, Optimism
+        prices.put("0x2791bca1f2de4661ed88a30c99a7a9449aa84174", new TokenPrice(6, BigDecimal.ONE)); // USDC.e, Polygon
+        STABLECOINS = Collections.unmodifiableMap(prices);
+    }
+
+    // Modified z-score above which a value is an outlier (Iglewicz and Hoaglin)
+    private static final BigDecimal OUTLIER_SCORE = new BigDecimal("3.5");
+    private static final BigDecimal MAD_FACTOR = new BigDecimal("0.6745");
+    // With more than half of the values identical the MAD is zero; flag relative deviations instead
+    private static final BigDecimal ZERO_MAD_TOLERANCE = new BigDecimal("0.25");
+    private static final int MIN_OUTLIER_SAMPLES = 5;
+    private static final int MIN_BASELINE_SAMPLES = 3;
+    private static final MathContext MC = MathContext.DECIMAL64;
+    private static final BigDecimal BPS = BigDecimal.valueOf(10_000);
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final Map<String, TokenPrice> prices;
+    private final BigDecimal regressionThreshold;
+    private final Map<String, GroupStats> groups = new TreeMap<>();
+    private final List<Comparison> comparisons = new ArrayList<>();
+    private final List<Finding> findings = new ArrayList<>();
+    private String latestRun;
+    private int sampleCount;
+
+    private FeeAnalytics(Map<String, TokenPrice> prices, BigDecimal regressionThreshold) {
+        this.prices = prices;
+        this.regressionThreshold = regressionThreshold;
+    }
+
+    public static FeeAnalytics of(List<QuoteSample> samples) {
+        return of(samples, STABLECOINS, DEFAULT_REGRESSION_THRESHOLD);
+    }
+
+    public static FeeAnalytics of(List<QuoteSample> samples, Map<String, TokenPrice> prices, BigDecimal regressionThreshold) {
+        FeeAnalytics analytics = new FeeAnalytics(prices, regressionThreshold);
+        analytics.analyse(samples);
+        return analytics;
+    }
+
+    public static FeeAnalytics load(Path samples) throws IOException {
+        return of(QuoteAnalyticsRecorder.read(samples));
+    }
+
+    /**
+     * Analyses a samples file for the reporting step: {@code FeeAnalytics <samples.jsonl> [<dir>]}
+     * writes {@code quote-fees.csv} and {@code quote-fees.json} to {@code <dir>} (default
+     * target/analytics) and prints the findings.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: FeeAnalytics <samples.jsonl> [<dir>]");
+            System.exit(2);
+        }
+        FeeAnalytics analytics = load(Paths.get(args[0]));
+        analytics.writeTo(Paths.get(args.length > 1 ? args[1] : "target/analytics"));
+        System.out.println(analytics);
+    }
+
+    public Map<String, GroupStats> getGroups() {
+        return groups;
+    }
+
+    public List<Comparison> getComparisons() {
+        return comparisons;
+    }
+
+    /**
+     * Outliers and regressions of the latest run.
+     */
+    public List<Finding> getFindings() {
+        return findings;
+    }
+
+    public String getLatestRun() {
+        return latestRun;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Writes {@code quote-fees.csv} and {@code quote-fees.json} into {@code dir}.
+     */
+    public void writeTo(Path dir) throws IOException {
+        writeCsv(dir.resolve("quote-fees.csv"));
+        writeJson(dir.resolve("quote-fees.json"));
+    }
+
+    /**
+     * One row per route and segment; gas in units, fees in USD, prices in output per input base unit.
+     */
+    public void writeCsv(Path target) throws IOException {
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        try (Writer out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            out.write("route,segment,samples,runs,gasMin,gasP50,gasP90,gasMax,feeMin,feeP50,feeP90,feeMax,priceP50,netPriceP50\n");
+            for (GroupStats group : groups.values()) {
+                out.write(csv(group.route) + "," + group.segment + "," + group.samples + "," + group.runs + ","
+                        + group.gasLimit.toCsv() + "," + group.totalFee.toCsv() + ","
+                        + plain(group.price.getMedian()) + "," + plain(group.netPrice.getMedian()) + "\n");
+            }
+        }
+    }
+
+    public void writeJson(Path target) throws IOException {
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ObjectNode root = mapper.createObjectNode();
+        root.put("samples", sampleCount);
+        root.put("latestRun", latestRun);
+        ArrayNode groupList = root.putArray("groups");
+        for (GroupStats group : groups.values()) {
+            ObjectNode node = groupList.addObject();
+            node.put("route", group.route);
+            node.put("segment", group.segment);
+            node.put("samples", group.samples);
+            node.put("runs", group.runs);
+            group.gasLimit.toJson(node.putObject("gasLimit"));
+            group.totalFee.toJson(node.putObject("totalFee"));
+            group.price.toJson(node.putObject("price"));
+            group.netPrice.toJson(node.putObject("netPrice"));
+        }
+        ArrayNode comparisonList = root.putArray("comparisons");
+        for (Comparison comparison : comparisons) {
+            ObjectNode node = comparisonList.addObject();
+            node.put("route", comparison.route);
+            node.put("sellAmount", comparison.sellAmount);
+            node.put("dimension", comparison.dimension);
+            node.put("samplesWith", comparison.samplesWith);
+            node.put("samplesWithout", comparison.samplesWithout);
+            node.put("gasP50With", plain(comparison.gasWith));
+            node.put("gasP50Without", plain(comparison.gasWithout));
+            node.put("feeP50With", plain(comparison.feeWith));
+            node.put("feeP50Without", plain(comparison.feeWithout));
+            node.put("amountOutDeltaBps", plain(comparison.amountOutDeltaBps));
+            node.put("basis", comparison.basis);
+        }
+        ArrayNode findingList = root.putArray("findings");
+        for (Finding finding : findings) {
+            ObjectNode node = findingList.addObject();
+            node.put("kind", finding.kind);
+            node.put("route", finding.route);
+            node.put("segment", finding.segment);
+            node.put("metric", finding.metric);
+            node.put("value", plain(finding.value));
+            node.put("baseline", plain(finding.baseline));
+            node.put("detail", finding.detail);
+        }
+        mapper.writeValue(target.toFile(), root);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d quote samples in %d groups, latest run %s%n", sampleCount, groups.size(), latestRun));
+        for (GroupStats group : groups.values()) {
+            sb.append(String.format("  %s [%s]: n=%d gasLimit p50=%s p90=%s, fee p50=%s p90=%s%n", group.route, group.segment,
+                    group.samples, plain(group.gasLimit.getMedian()), plain(group.gasLimit.getP90()),
+                    plain(group.totalFee.getMedian()), plain(group.totalFee.getP90())));
+        }
+        for (Comparison comparison : comparisons) {
+            sb.append("  ").append(comparison).append(System.lineSeparator());
+        }
+        for (Finding finding : findings) {
+            sb.append("  ").append(finding).append(System.lineSeparator());
+        }
+        return sb.toString().trim();
+    }
+
+    private void analyse(List<QuoteSample> samples) {
+        sampleCount = samples.size();
+        latestRun = samples.stream()
+                .max((a, b) -> Long.compare(a.getEpochMillis(), b.getEpochMillis()))
+                .map(QuoteSample::getRun)
+                .orElse(null);
+
+        Map<String, List<QuoteSample>> byGroup = samples.stream()
+                .collect(Collectors.groupingBy(s -> s.getRoute() + "|" + s.getSegment(), TreeMap::new, Collectors.toList()));
+        for (Map.Entry<String, List<QuoteSample>> entry : byGroup.entrySet()) {
+            List<QuoteSample> group = entry.getValue();
+            GroupStats stats = new GroupStats(group.get(0).getRoute(), group.get(0).getSegment(), group);
+            groups.put(entry.getKey(), stats);
+
+            List<QuoteSample> latest = filter(group, s -> Objects.equals(s.getRun(), latestRun));
+            if (latest.isEmpty()) {
+                continue;
+            }
+            // A shift of the whole run is reported once, as a regression, rather than per sample
+            if (!findGasRegression(stats, latest, filter(group, s -> !Objects.equals(s.getRun(), latestRun)))) {
+                findOutliers(stats, group, latest, "gasLimit", FeeAnalytics::gas);
+            }
+            findOutliers(stats, group, latest, "totalFee", QuoteSample::getTotalFee);
+        }
+
+        Map<String, List<QuoteSample>> byRouteAndAmount = filter(samples, s -> Objects.equals(s.getRun(), latestRun)).stream()
+                .collect(Collectors.groupingBy(s -> s.getRoute() + "|" + s.getSellAmount(), TreeMap::new, Collectors.toList()));
+        for (List<QuoteSample> routeSamples : byRouteAndAmount.values()) {
+            compare(routeSamples, "gasless", QuoteSample::isGasless);
+            compare(routeSamples, "rfq", QuoteSample::isRfq);
+        }
+    }
+
+    private void findOutliers(GroupStats stats, List<QuoteSample> all, List<QuoteSample> latest, String metric,
+                              Function<QuoteSample, BigDecimal> value) {
+        List<BigDecimal> values = values(all, value);
+        if (values.size() < MIN_OUTLIER_SAMPLES) {
+            return;
+        }
+        BigDecimal median = median(values);
+        List<BigDecimal> deviations = new ArrayList<>();
+        for (BigDecimal v : values) {
+            deviations.add(v.subtract(median).abs());
+        }
+        BigDecimal mad = median(deviations);
+        for (QuoteSample sample : latest) {
+            BigDecimal v = value.apply(sample);
+            if (v == null) {
+                continue;
+            }
+            BigDecimal deviation = v.subtract(median).abs();
+            if (mad.signum() > 0) {
+                BigDecimal score = MAD_FACTOR.multiply(deviation).divide(mad, MC);
+                if (score.compareTo(OUTLIER_SCORE) > 0) {
+                    findings.add(new Finding("outlier", stats, metric, v, median,
+                            "modified z-score " + score.setScale(1, RoundingMode.HALF_UP).toPlainString()));
+                }
+            } else if (deviation.signum() > 0
+                    && (median.signum() == 0 || deviation.divide(median.abs(), MC).compareTo(ZERO_MAD_TOLERANCE) > 0)) {
+                findings.add(new Finding("outlier", stats, metric, v, median, percentChange(v, median) + " from an otherwise constant value"));
+            }
+        }
+    }
+
+    private boolean findGasRegression(GroupStats stats, List<QuoteSample> latest, List<QuoteSample> earlier) {
+        List<BigDecimal> baseline = values(earlier, FeeAnalytics::gas);
+        List<BigDecimal> current = values(latest, FeeAnalytics::gas);
+        if (baseline.size() < MIN_BASELINE_SAMPLES || current.isEmpty()) {
+            return false;
+        }
+        BigDecimal baselineMedian = median(baseline);
+        BigDecimal currentMedian = median(current);
+        BigDecimal limit = baselineMedian.multiply(BigDecimal.ONE.add(regressionThreshold));
+        if (baselineMedian.signum() > 0 && currentMedian.compareTo(limit) > 0) {
+            findings.add(new Finding("regression", stats, "gasLimit", currentMedian, baselineMedian,
+                    percentChange(currentMedian, baselineMedian) + " vs median of " + baseline.size() + " earlier samples"));
+            return true;
+        }
+        return false;
+    }
+
+    private void compare(List<QuoteSample> samples, String dimension, Predicate<QuoteSample> feature) {
+        List<QuoteSample> with = filter(samples, feature);
+        List<QuoteSample> without = filter(samples, feature.negate());
+        if (with.isEmpty() || without.isEmpty()) {
+            return;
+        }
+        Comparison comparison = new Comparison();
+        comparison.route = samples.get(0).getRoute();
+        comparison.sellAmount = samples.get(0).getSellAmount();
+        comparison.dimension = dimension;
+        comparison.samplesWith = with.size();
+        comparison.samplesWithout = without.size();
+        comparison.gasWith = median(values(with, FeeAnalytics::gas));
+        comparison.gasWithout = median(values(without, FeeAnalytics::gas));
+        comparison.feeWith = median(values(with, QuoteSample::getTotalFee));
+        comparison.feeWithout = median(values(without, QuoteSample::getTotalFee));
+
+        List<BigDecimal> netWith = values(with, this::netAmountOut);
+        List<BigDecimal> netWithout = values(without, this::netAmountOut);
+        boolean net = netWith.size() == with.size() && netWithout.size() == without.size();
+        comparison.basis = net ? "net" : "gross";
+        BigDecimal outWith = median(net ? netWith : values(with, FeeAnalytics::amountOut));
+        BigDecimal outWithout = median(net ? netWithout : values(without, FeeAnalytics::amountOut));
+        if (outWith != null && outWithout != null && outWithout.signum() != 0) {
+            comparison.amountOutDeltaBps = outWith.subtract(outWithout).multiply(BPS).divide(outWithout, MC)
+                    .setScale(2, RoundingMode.HALF_UP);
+        }
+        comparisons.add(comparison);
+    }
+
+    /**
+     * amountOut minus the fees converted into output base units, or null when the output token's
+     * price is unknown.
+     */
+    BigDecimal netAmountOut(QuoteSample sample) {
+        TokenPrice price = prices.get(sample.getToToken());
+        BigInteger amountOut = sample.getAmountOutValue();
+        if (price == null || amountOut == null) {
+            return null;
+        }
+        // Fees are rounded up so the net amount is never flattered
+        BigDecimal feeUnits = sample.getTotalFee().movePointRight(price.decimals).divide(price.usdPrice, 0, RoundingMode.CEILING);
+        return new BigDecimal(amountOut).subtract(feeUnits);
+    }
+
+    private static BigDecimal gas(QuoteSample sample) {
+        BigInteger gas = sample.getGasLimitValue();
+        return gas == null ? null : new BigDecimal(gas);
+    }
+
+    private static BigDecimal amountOut(QuoteSample sample) {
+        BigInteger amountOut = sample.getAmountOutValue();
+        return amountOut == null ? null : new BigDecimal(amountOut);
+    }
+
+    private static BigDecimal perUnitSold(QuoteSample sample, BigDecimal amount) {
+        BigInteger sold = sample.getSellAmountValue();
+        return amount == null || sold == null || sold.signum() == 0 ? null : amount.divide(new BigDecimal(sold), MC);
+    }
+
+    private static List<QuoteSample> filter(List<QuoteSample> samples, Predicate<QuoteSample> predicate) {
+        return samples.stream().filter(predicate).collect(Collectors.toList());
+    }
+
+    private static List<BigDecimal> values(List<QuoteSample> samples, Function<QuoteSample, BigDecimal> value) {
+        return samples.stream().map(value).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * Median of the values (mean of the middle two for an even count), or null when empty.
+     */
+    static BigDecimal median(List<BigDecimal> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        List<BigDecimal> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1
+                ? sorted.get(middle)
+                : sorted.get(middle - 1).add(sorted.get(middle)).divide(BigDecimal.valueOf(2), MC);
+    }
+
+    private static String percentChange(BigDecimal value, BigDecimal baseline) {
+        if (baseline.signum() == 0) {
+            return "from zero";
+        }
+        BigDecimal percent = value.subtract(baseline).multiply(HUNDRED).divide(baseline.abs(), MC).setScale(1, RoundingMode.HALF_UP);
+        return (percent.signum() >= 0 ? "+" : "") + percent.toPlainString() + "%";
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "" : value.stripTrailingZeros().toPlainString();
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * USD price of one whole token and its number of decimals.
+     */
+    public static final class TokenPrice {
+
+        private final int decimals;
+        private final BigDecimal usdPrice;
+
+        public TokenPrice(int decimals, BigDecimal usdPrice) {
+            if (usdPrice.signum() <= 0) {
+                throw new IllegalArgumentException("usdPrice must be positive: " + usdPrice);
+            }
+            this.decimals = decimals;
+            this.usdPrice = usdPrice;
+        }
+    }
+
+    /**
+     * Distribution of one metric: count, min, median, p90 (nearest rank) and max.
+     */
+    public static final class Distribution {
+
+        private final int count;
+        private final BigDecimal min;
+        private final BigDecimal median;
+        private final BigDecimal p90;
+        private final BigDecimal max;
+
+        Distribution(List<BigDecimal> values) {
+            List<BigDecimal> sorted = new ArrayList<>(values);
+            Collections.sort(sorted);
+            count = sorted.size();
+            min = count == 0 ? null : sorted.get(0);
+            median = median(sorted);
+            p90 = count == 0 ? null : sorted.get((int) Math.ceil(0.9 * count) - 1);
+            max = count == 0 ? null : sorted.get(count - 1);
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public BigDecimal getMin() {
+            return min;
+        }
+
+        public BigDecimal getMedian() {
+            return median;
+        }
+
+        public BigDecimal getP90() {
+            return p90;
+        }
+
+        public BigDecimal getMax() {
+            return max;
+        }
+
+        private String toCsv() {
+            return plain(min) + "," + plain(median) + "," + plain(p90) + "," + plain(max);
+        }
+
+        private void toJson(ObjectNode node) {
+            node.put("count", count);
+            node.put("min", plain(min));
+            node.put("p50", plain(median));
+            node.put("p90", plain(p90));
+            node.put("max", plain(max));
+        }
+    }
+
+    /**
+     * Distributions of one route and segment over every recorded run.
+     */
+    public final class GroupStats {
+
+        private final String route;
+        private final String segment;
+        private final int samples;
+        private final int runs;
+        private final Distribution gasLimit;
+        private final Distribution totalFee;
+        private final Distribution price;
+        private final Distribution netPrice;
+
+        private GroupStats(String route, String segment, List<QuoteSample> group) {
+            this.route = route;
+            this.segment = segment;
+            this.samples = group.size();
+            this.runs = group.stream().map(QuoteSample::getRun).filter(Objects::nonNull).collect(Collectors.toCollection(TreeSet::new)).size();
+            this.gasLimit = new Distribution(values(group, FeeAnalytics::gas));
+            this.totalFee = new Distribution(values(group, QuoteSample::getTotalFee));
+            this.price = new Distribution(values(group, s -> perUnitSold(s, amountOut(s))));
+            this.netPrice = new Distribution(values(group, s -> perUnitSold(s, netAmountOut(s))));
+        }
+
+        public String getRoute() {
+            return route;
+        }
+
+        public String getSegment() {
+            return segment;
+        }
+
+        public int getSamples() {
+            return samples;
+        }
+
+        public int getRuns() {
+            return runs;
+        }
+
+        public Distribution getGasLimit() {
+            return gasLimit;
+        }
+
+        public Distribution getTotalFee() {
+            return totalFee;
+        }
+
+        /**
+         * amountOut per unit sold, in base units.
+         */
+        public Distribution getPrice() {
+            return price;
+        }
+
+        /**
+         * Net-of-fee amountOut per unit sold; empty when the output token's price is unknown.
+         */
+        public Distribution getNetPrice() {
+            return netPrice;
+        }
+    }
+
+    /**
+     * Quotes of one route and sell amount in the latest run, with a feature against without it.
+     */
+    public static final class Comparison {
+
+        private String route;
+        private String sellAmount;
+        private String dimension;
+        private int samplesWith;
+        private int samplesWithout;
+        private BigDecimal gasWith;
+        private BigDecimal gasWithout;
+        private BigDecimal feeWith;
+        private BigDecimal feeWithout;
+        private BigDecimal amountOutDeltaBps;
+        private String basis;
+
+        public String getRoute() {
+            return route;
+        }
+
+        public String getSellAmount() {
+            return sellAmount;
+        }
+
+        /**
+         * "gasless" or "rfq".
+         */
+        public String getDimension() {
+            return dimension;
+        }
+
+        public BigDecimal getGasWith() {
+            return gasWith;
+        }
+
+        public BigDecimal getGasWithout() {
+            return gasWithout;
+        }
+
+        public BigDecimal getFeeWith() {
+            return feeWith;
+        }
+
+        public BigDecimal getFeeWithout() {
+            return feeWithout;
+        }
+
+        /**
+         * Median amountOut with the feature relative to without it, in basis points.
+         */
+        public BigDecimal getAmountOutDeltaBps() {
+            return amountOutDeltaBps;
+        }
+
+        /**
+         * "net" when amountOut was compared net of fees, "gross" when a fee could not be converted.
+         */
+        public String getBasis() {
+            return basis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s sell %s, %s vs not: gas p50 %s vs %s, fee p50 %s vs %s, %s amountOut %s bps",
+                    route, sellAmount, dimension, plain(gasWith), plain(gasWithout), plain(feeWith), plain(feeWithout),
+                    basis, plain(amountOutDeltaBps));
+        }
+    }
+
+    /**
+     * An outlier or regression of the latest run.
+     */
+    public static final class Finding {
+
+        private final String kind;
+        private final String route;
+        private final String segment;
+        private final String metric;
+        private final BigDecimal value;
+        private final BigDecimal baseline;
+        private final String detail;
+
+        private Finding(String kind, GroupStats group, String metric, BigDecimal value, BigDecimal baseline, String detail) {
+            this.kind = kind;
+            this.route = group.route;
+            this.segment = group.segment;
+            this.metric = metric;
+            this.value = value;
+            this.baseline = baseline;
+            this.detail = detail;
+        }
+
+        /**
+         * "outlier" or "regression".
+         */
+        public String getKind() {
+            return kind;
+        }
+
+        public String getRoute() {
+            return route;
+        }
+
+        public String getSegment() {
+            return segment;
+        }
+
+        public String getMetric() {
+            return metric;
+        }
+
+        public BigDecimal getValue() {
+            return value;
+        }
+
+        /**
+         * Median the value was judged against.
+         */
+        public BigDecimal getBaseline() {
+            return baseline;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %s [%s] %s=%s, median %s, %s",
+                    kind.toUpperCase(Locale.ROOT), route, segment, metric, plain(value), plain(baseline), detail);
+        }
+    }
+}
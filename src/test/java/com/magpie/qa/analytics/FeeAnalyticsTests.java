@@ -0,0 +1,144 @@
+package com.magpie.qa.analytics;
+
+import com.magpie.qa.support.QuoteRequest;
+import com.magpie.qa.support.StubQuoteServer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+
+public class FeeAnalyticsTests {
+
+    private static final String WETH = "0x82af49447d8a07e3bd95bd0d56f35241523fbab1";
+    private static final String USDC = "0xaf88d065e77c8cc2239327c5edb3a432268e5831";
+    private static final String ONE_WETH = "1000000000000000000";
+
+    @Test(description = "SELF-ANALYTICS-01: Distributions, net-of-fee prices and gasless/RFQ comparisons are exact")
+    public void testDistributionsAndComparisons() {
+        List<QuoteSample> samples = new ArrayList<>();
+        samples.add(sample("run-1", 1, false, false, "3000000000", "350000", "0.50"));
+        samples.add(sample("run-1", 2, false, false, "3000000002", "350002", "0.52"));
+        samples.add(sample("run-1", 3, true, false, "2999000000", "0", "1.00"));
+        samples.add(sample("run-1", 4, false, true, "3003000000", "180000", "0.30"));
+
+        FeeAnalytics analytics = FeeAnalytics.of(samples);
+
+        FeeAnalytics.GroupStats standard = group(analytics, "standard");
+        Assert.assertEquals(standard.getSamples(), 2);
+        Assert.assertEquals(standard.getGasLimit().getMedian(), new BigDecimal("350001"));
+        Assert.assertEquals(standard.getTotalFee().getMax(), new BigDecimal("0.52"));
+        // Per wei sold; the net price deducts 0.52 USD as 520000 units of 6-decimal USDC
+        Assert.assertEquals(standard.getPrice().getMin().compareTo(new BigDecimal("3.000000000E-9")), 0);
+        Assert.assertEquals(standard.getNetPrice().getMin().compareTo(new BigDecimal("2.999480002E-9")), 0);
+
+        FeeAnalytics.Comparison gasless = comparison(analytics, "gasless");
+        Assert.assertEquals(gasless.getBasis(), "net");
+        Assert.assertEquals(gasless.getFeeWith(), new BigDecimal("1.00"));
+        // Net 2998000000 against the median of 2999480002, 2999500000 and 3002700000
+        Assert.assertEquals(gasless.getAmountOutDeltaBps(), new BigDecimal("-5.00"));
+        FeeAnalytics.Comparison rfq = comparison(analytics, "rfq");
+        Assert.assertEquals(rfq.getGasWith(), new BigDecimal("180000"));
+        Assert.assertEquals(rfq.getGasWithout(), new BigDecimal("350000"));
+        Assert.assertTrue(rfq.getAmountOutDeltaBps().signum() > 0, rfq.toString());
+        Assert.assertTrue(analytics.getFindings().isEmpty(), analytics.getFindings().toString());
+    }
+
+    @Test(description = "SELF-ANALYTICS-02: Outliers and gas regressions of the latest run are flagged")
+    public void testOutliersAndRegressions() {
+        List<QuoteSample> samples = new ArrayList<>();
+        long time = 0;
+        for (int i = 0; i < 6; i++) {
+            samples.add(sample("run-1", ++time, false, false, "3000000000", String.valueOf(350_000 + i * 100), "0.50"));
+        }
+        for (int i = 0; i < 4; i++) {
+            samples.add(sample("run-2", ++time, false, false, "3000000000", String.valueOf(450_000 + i * 100), "0.50"));
+        }
+        samples.add(sample("run-2", ++time, false, false, "3000000000", "450200", "7.50"));
+
+        FeeAnalytics analytics = FeeAnalytics.of(samples);
+
+        Assert.assertEquals(analytics.getLatestRun(), "run-2");
+        List<String> flagged = new ArrayList<>();
+        for (FeeAnalytics.Finding finding : analytics.getFindings()) {
+            flagged.add(finding.getKind() + " " + finding.getMetric() + " " + finding.getValue().toPlainString());
+        }
+        Assert.assertTrue(flagged.contains("outlier totalFee 7.50"), flagged.toString());
+        Assert.assertTrue(flagged.contains("regression gasLimit 450200"), flagged.toString());
+        Assert.assertEquals(flagged.size(), 2, flagged.toString());
+    }
+
+    @Test(description = "SELF-ANALYTICS-03: Quotes from the API under test are recorded, other hosts are not")
+    public void testFilterRecordsOnlyTheApiUnderTest() throws Exception {
+        Path file = Paths.get("target", "analytics-selftest", "quote-analytics.jsonl");
+        Files.deleteIfExists(file);
+        try (StubQuoteServer stub = StubQuoteServer.start();
+             QuoteAnalyticsRecorder recorder = new QuoteAnalyticsRecorder(file, "run-self")) {
+            quote(stub, new QuoteAnalyticsFilter(stub.getBaseUri(), recorder), true);
+            quote(stub, new QuoteAnalyticsFilter("https://api.example.com", recorder), false);
+            Assert.assertEquals(recorder.getRecorded(), 1);
+        }
+
+        List<QuoteSample> samples = QuoteAnalyticsRecorder.read(file);
+        Assert.assertEquals(samples.size(), 1);
+        QuoteSample sample = samples.get(0);
+        Assert.assertEquals(sample.getRun(), "run-self");
+        Assert.assertEquals(sample.getRoute(), QuoteRequest.QUOTE_ENDPOINT + " arbitrum " + WETH + "->" + USDC);
+        Assert.assertEquals(sample.getSegment(), "gasless");
+        Assert.assertEquals(sample.getGasLimitValue().intValue(), 350_000);
+        Assert.assertEquals(sample.getTotalFee(), new BigDecimal("0.05"));
+    }
+
+    private static void quote(StubQuoteServer stub, QuoteAnalyticsFilter filter, boolean gasless) {
+        given()
+                .baseUri(stub.getBaseUri())
+                .filter(filter)
+                .param("network", "arbitrum")
+                .param("fromTokenAddress", WETH)
+                .param("toTokenAddress", USDC)
+                .param("sellAmount", ONE_WETH)
+                .param("gasless", gasless)
+                .when()
+                .get(QuoteRequest.QUOTE_ENDPOINT)
+                .then()
+                .statusCode(200);
+    }
+
+    private static QuoteSample sample(String run, long time, boolean gasless, boolean rfq, String amountOut,
+                                      String gasLimit, String gasFee) {
+        QuoteSample sample = new QuoteSample();
+        sample.setRun(run);
+        sample.setEpochMillis(time);
+        sample.setEndpoint(QuoteRequest.QUOTE_ENDPOINT);
+        sample.setNetwork("arbitrum");
+        sample.setFromToken(WETH);
+        sample.setToToken(USDC);
+        sample.setSellAmount(ONE_WETH);
+        sample.setGasless(gasless);
+        sample.setRfq(rfq);
+        sample.setAmountOut(amountOut);
+        sample.setGasLimit(gasLimit);
+        sample.getFees().put("gas", gasFee);
+        return sample;
+    }
+
+    private static FeeAnalytics.GroupStats group(FeeAnalytics analytics, String segment) {
+        return analytics.getGroups().values().stream()
+                .filter(g -> g.getSegment().equals(segment))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No group " + segment + " in " + analytics.getGroups().keySet()));
+    }
+
+    private static FeeAnalytics.Comparison comparison(FeeAnalytics analytics, String dimension) {
+        return analytics.getComparisons().stream()
+                .filter(c -> c.getDimension().equals(dimension))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + dimension + " comparison in " + analytics));
+    }
+}
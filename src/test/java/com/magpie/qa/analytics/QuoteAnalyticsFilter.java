@@ -0,0 +1,71 @@
+package com.magpie.qa.analytics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magpie.qa.support.QuoteRequest;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records a {@link QuoteSample} of every successful quote and quote-in response from the API under
+ * test. Requests to other hosts (local stubs, fault proxies) are not recorded, so self-tests never
+ * leak into the analytics.
+ */
+public class QuoteAnalyticsFilter implements Filter {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final URI baseUri;
+    private final QuoteAnalyticsRecorder recorder;
+
+    public QuoteAnalyticsFilter(String baseUri, QuoteAnalyticsRecorder recorder) {
+        this.baseUri = URI.create(baseUri);
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        Response response = ctx.next(requestSpec, responseSpec);
+        URI uri = URI.create(requestSpec.getURI());
+        String endpoint = uri.getPath();
+        if (response.getStatusCode() != 200 || !sameHost(uri)
+                || !(QuoteRequest.QUOTE_ENDPOINT.equals(endpoint) || QuoteRequest.QUOTE_IN_ENDPOINT.equals(endpoint))) {
+            return response;
+        }
+
+        Map<String, Object> params = new HashMap<>(requestSpec.getQueryParams());
+        params.putAll(requestSpec.getRequestParams());
+        try {
+            // The body is buffered by RestAssured, so the scenario's own assertions still see it
+            JsonNode body = MAPPER.readTree(response.asByteArray());
+            QuoteSample sample = QuoteSample.from(endpoint, params, body);
+            if (sample != null) {
+                recorder.record(sample);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Analytics must never fail a scenario; a broken body is for the scenario to report
+            System.out.println("WARN: quote analytics skipped a response: " + e);
+        }
+        return response;
+    }
+
+    private boolean sameHost(URI uri) {
+        return baseUri.getHost() != null && baseUri.getHost().equalsIgnoreCase(uri.getHost()) && port(baseUri) == port(uri);
+    }
+
+    private static int port(URI uri) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+}
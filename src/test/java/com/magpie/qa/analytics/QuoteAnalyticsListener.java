@@ -0,0 +1,47 @@
+package com.magpie.qa.analytics;
+
+import com.magpie.qa.BaseTest;
+import io.restassured.RestAssured;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Records gas and fee data of every quote from the API under test while the suite runs, then
+ * analyses every recorded run once this one collected something and reports its findings; see
+ * {@link FeeAnalytics}. Turn it off with {@code -Dquote.analytics=false}.
+ */
+public class QuoteAnalyticsListener implements ISuiteListener {
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (QuoteAnalyticsRecorder.ENABLED
+                && RestAssured.filters().stream().noneMatch(f -> f instanceof QuoteAnalyticsFilter)) {
+            RestAssured.filters(new QuoteAnalyticsFilter(BaseTest.BASE_URI, QuoteAnalyticsRecorder.shared()));
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!QuoteAnalyticsRecorder.ENABLED) {
+            return;
+        }
+        try {
+            QuoteAnalyticsRecorder recorder = QuoteAnalyticsRecorder.shared();
+            recorder.close();
+            if (recorder.getRecorded() == 0) {
+                return;
+            }
+            FeeAnalytics analytics = FeeAnalytics.load(recorder.getFile());
+            analytics.writeTo(Paths.get("target", "analytics"));
+            System.out.println("INFO: quote fee analytics written to target/analytics");
+            for (FeeAnalytics.Finding finding : analytics.getFindings()) {
+                System.out.println("WARN: " + finding);
+            }
+        } catch (IOException e) {
+            System.out.println("WARN: could not write quote fee analytics: " + e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.magpie.qa.analytics;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends {@link QuoteSample}s as JSON lines to {@code .magpie-qa/quote-analytics.jsonl} (override
+ * with {@code -Dquote.analytics.file=<file>}, disable with {@code -Dquote.analytics=false}). The file
+ * is never rewritten, so it accumulates every run and {@link FeeAnalytics} can compare the latest
+ * run against earlier ones; delete it to start over.
+ */
+public class QuoteAnalyticsRecorder implements AutoCloseable {
+
+    public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("quote.analytics"));
+    public static final Path DEFAULT_FILE = Paths.get(System.getProperty("quote.analytics.file", ".magpie-qa/quote-analytics.jsonl"));
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static QuoteAnalyticsRecorder shared;
+
+    private final Path file;
+    private final String runId;
+    private Writer writer;
+    private long recorded;
+
+    public QuoteAnalyticsRecorder(Path file, String runId) {
+        this.file = file;
+        this.runId = runId;
+    }
+
+    /**
+     * Recorder of {@link #DEFAULT_FILE} for this JVM, one run id per JVM.
+     */
+    public static synchronized QuoteAnalyticsRecorder shared() {
+        if (shared == null) {
+            shared = new QuoteAnalyticsRecorder(DEFAULT_FILE, "run-" + System.currentTimeMillis());
+        }
+        return shared;
+    }
+
+    /**
+     * Reads every sample of a file; a missing file is empty and unreadable lines are skipped.
+     */
+    public static List<QuoteSample> read(Path file) throws IOException {
+        List<QuoteSample> samples = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return samples;
+        }
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    samples.add(MAPPER.readValue(line, QuoteSample.class));
+                } catch (IOException e) {
+                    // A run killed mid-write leaves a partial last line
+                }
+            }
+        }
+        return samples;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    /**
+     * Number of samples recorded by this recorder.
+     */
+    public synchronized long getRecorded() {
+        return recorded;
+    }
+
+    public synchronized void record(QuoteSample sample) throws IOException {
+        if (writer == null) {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        sample.setRun(runId);
+        writer.write(MAPPER.writeValueAsString(sample));
+        writer.write('\n');
+        // Flushed per line so an aborted run still keeps what it collected
+        writer.flush();
+        recorded++;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.magpie.qa.analytics;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The gas and fee relevant part of one successful quote: what was asked (route, sell amount,
+ * gasless, RFQ) and what came back (amountOut, fees by type, resourceEstimate.gasLimit). Amounts are
+ * kept as the API's decimal strings and only parsed into BigInteger/BigDecimal for analysis, so
+ * nothing is rounded on the way to disk.
+ */
+public class QuoteSample {
+
+    private String run;
+    private long epochMillis;
+    private String endpoint;
+    private String network;
+    private String fromToken;
+    private String toToken;
+    private String sellAmount;
+    private boolean gasless;
+    private boolean rfq;
+    private String amountOut;
+    private String gasLimit;
+    private Map<String, String> fees = new TreeMap<>();
+
+    /**
+     * Sample of a 200 response to {@code endpoint}, or null when the body is not a quote.
+     * {@code params} values may be single values or collections, as RestAssured holds them.
+     */
+    public static QuoteSample from(String endpoint, Map<String, ?> params, JsonNode body) {
+        if (body == null || !body.hasNonNull("amountOut")) {
+            return null;
+        }
+        QuoteSample sample = new QuoteSample();
+        sample.epochMillis = System.currentTimeMillis();
+        sample.endpoint = endpoint;
+        String network = param(params, "network");
+        if (network == null) {
+            network = param(params, "fromNetwork") + "->" + param(params, "toNetwork");
+        }
+        sample.network = network;
+        sample.fromToken = lower(param(params, "fromTokenAddress"));
+        sample.toToken = lower(param(params, "toTokenAddress"));
+        sample.sellAmount = param(params, "sellAmount");
+        sample.gasless = Boolean.parseBoolean(param(params, "gasless"));
+        sample.rfq = Boolean.parseBoolean(param(params, "enableRFQ"));
+        sample.amountOut = body.get("amountOut").asText();
+        JsonNode gasLimit = body.path("resourceEstimate").path("gasLimit");
+        sample.gasLimit = gasLimit.isMissingNode() || gasLimit.isNull() ? null : gasLimit.asText();
+        for (JsonNode fee : body.path("fees")) {
+            String type = fee.path("type").asText("unknown");
+            BigDecimal value = decimal(fee.path("value").asText(null));
+            if (value != null) {
+                // Several fees of one type (e.g. two bridge legs) are reported as their sum
+                sample.fees.merge(type, value.toPlainString(), (a, b) -> new BigDecimal(a).add(new BigDecimal(b)).toPlainString());
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Endpoint, network and token pair, e.g. "/aggregator/quote arbitrum 0x82af...->0xaf88...".
+     */
+    @JsonIgnore
+    public String getRoute() {
+        return endpoint + " " + network + " " + fromToken + "->" + toToken;
+    }
+
+    /**
+     * "standard", "gasless", "rfq" or "gasless+rfq".
+     */
+    @JsonIgnore
+    public String getSegment() {
+        if (gasless && rfq) {
+            return "gasless+rfq";
+        }
+        return gasless ? "gasless" : rfq ? "rfq" : "standard";
+    }
+
+    /**
+     * Sum of all fee values, zero when the quote has none.
+     */
+    @JsonIgnore
+    public BigDecimal getTotalFee() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (String value : fees.values()) {
+            total = total.add(new BigDecimal(value));
+        }
+        return total;
+    }
+
+    /**
+     * resourceEstimate.gasLimit, or null when missing or not an integer.
+     */
+    @JsonIgnore
+    public BigInteger getGasLimitValue() {
+        return integer(gasLimit);
+    }
+
+    @JsonIgnore
+    public BigInteger getAmountOutValue() {
+        return integer(amountOut);
+    }
+
+    @JsonIgnore
+    public BigInteger getSellAmountValue() {
+        return integer(sellAmount);
+    }
+
+    public String getRun() {
+        return run;
+    }
+
+    public void setRun(String run) {
+        this.run = run;
+    }
+
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    public void setEpochMillis(long epochMillis) {
+        this.epochMillis = epochMillis;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getNetwork() {
+        return network;
+    }
+
+    public void setNetwork(String network) {
+        this.network = network;
+    }
+
+    public String getFromToken() {
+        return fromToken;
+    }
+
+    public void setFromToken(String fromToken) {
+        this.fromToken = fromToken;
+    }
+
+    public String getToToken() {
+        return toToken;
+    }
+
+    public void setToToken(String toToken) {
+        this.toToken = toToken;
+    }
+
+    public String getSellAmount() {
+        return sellAmount;
+    }
+
+    public void setSellAmount(String sellAmount) {
+        this.sellAmount = sellAmount;
+    }
+
+    public boolean isGasless() {
+        return gasless;
+    }
+
+    public void setGasless(boolean gasless) {
+        this.gasless = gasless;
+    }
+
+    public boolean isRfq() {
+        return rfq;
+    }
+
+    public void setRfq(boolean rfq) {
+        this.rfq = rfq;
+    }
+
+    public String getAmountOut() {
+        return amountOut;
+    }
+
+    public void setAmountOut(String amountOut) {
+        this.amountOut = amountOut;
+    }
+
+    public String getGasLimit() {
+        return gasLimit;
+    }
+
+    public void setGasLimit(String gasLimit) {
+        this.gasLimit = gasLimit;
+    }
+
+    public Map<String, String> getFees() {
+        return fees;
+    }
+
+    public void setFees(Map<String, String> fees) {
+        this.fees = fees;
+    }
+
+    private static String param(Map<String, ?> params, String name) {
+        Object value = params.get(name);
+        if (value instanceof Collection) {
+            Iterator<?> values = ((Collection<?>) value).iterator();
+            value = values.hasNext() ? values.next() : null;
+        }
+        return value == null ? null : String.valueOf(value);
+    }
+
+    private static String lower(String address) {
+        return address == null ? null : address.toLowerCase(Locale.ROOT);
+    }
+
+    private static BigInteger integer(String value) {
+        try {
+            return value == null ? null : new BigInteger(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal decimal(String value) {
+        try {
+            return value == null ? null : new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.LatencyHistogram;
+import com.magpie.qa.support.QuoteClient;
+import com.magpie.qa.support.QuoteRequest;
+import com.magpie.qa.support.QuoteResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds the highest quote throughput the API sustains within a latency and error SLO.
+ * <p>
+ * The load is closed-loop: {@code concurrency} virtual users each send the next request of the
+ * scenario mix as soon as their previous one completes. Each step holds one concurrency level for
+ * {@code stepMillis}, discards the first {@code warmupMillis}, and measures throughput, p99 latency
+ * and error rate. Concurrency grows by {@code growth} per step until the knee: a step breaks the SLO,
+ * or throughput grows by less than {@code minGain} (the API is saturated and extra users only queue),
+ * or {@code maxConcurrency} is reached. The best step within the SLO gives the maximum sustainable
+ * throughput.
+ */
+public class CapacityFinder {
+
+    private final QuoteClient client;
+    private final List<QuoteRequest> scenarios;
+    private final long sloP99Micros;
+    private final double maxErrorRate;
+    private int startConcurrency = 1;
+    private int maxConcurrency = 64;
+    private double growth = 2.0;
+    private double minGain = 0.05;
+    private long stepMillis = 30_000;
+    private long warmupMillis = 5_000;
+
+    public CapacityFinder(QuoteClient client, List<QuoteRequest> scenarios, long sloP99Millis, double maxErrorRate) {
+        if (scenarios.isEmpty()) {
+            throw new IllegalArgumentException("A capacity ramp needs at least one scenario");
+        }
+        this.client = client;
+        this.scenarios = Collections.unmodifiableList(new ArrayList<>(scenarios));
+        this.sloP99Micros = TimeUnit.MILLISECONDS.toMicros(sloP99Millis);
+        this.maxErrorRate = maxErrorRate;
+    }
+
+    /**
+     * Concurrency of the first step, the limit, and the factor between steps (default 1, 64, 2.0).
+     */
+    public CapacityFinder ramp(int startConcurrency, int maxConcurrency, double growth) {
+        if (startConcurrency < 1 || maxConcurrency < startConcurrency) {
+            throw new IllegalArgumentException("Need 1 <= startConcurrency <= maxConcurrency: " + startConcurrency + ", " + maxConcurrency);
+        }
+        if (growth <= 1) {
+            throw new IllegalArgumentException("growth must be > 1: " + growth);
+        }
+        this.startConcurrency = startConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.growth = growth;
+        return this;
+    }
+
+    /**
+     * Length of each step and the part of it discarded as warm-up (default 30s and 5s).
+     */
+    public CapacityFinder stepMillis(long stepMillis, long warmupMillis) {
+        if (warmupMillis < 0 || stepMillis <= warmupMillis) {
+            throw new IllegalArgumentException("Need 0 <= warmupMillis < stepMillis: " + warmupMillis + ", " + stepMillis);
+        }
+        this.stepMillis = stepMillis;
+        this.warmupMillis = warmupMillis;
+        return this;
+    }
+
+    /**
+     * Relative throughput gain below which a step counts as saturated (default 0.05).
+     */
+    public CapacityFinder minGain(double minGain) {
+        this.minGain = minGain;
+        return this;
+    }
+
+    public CapacityReport find() throws InterruptedException {
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "capacity-user");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<CapacityReport.Step> steps = new ArrayList<>();
+        CapacityReport.Step best = null;
+        String stopReason;
+        try {
+            int concurrency = startConcurrency;
+            while (true) {
+                CapacityReport.Step step = runStep(executor, concurrency);
+                steps.add(step);
+                System.out.println("INFO: " + step);
+                if (!step.isWithinSlo()) {
+                    stopReason = "SLO broken at concurrency " + concurrency + " (" + step.getSloBreach() + ")";
+                    break;
+                }
+                if (best != null && step.getThroughput() < best.getThroughput() * (1 + minGain)) {
+                    stopReason = "saturated: throughput grew less than " + Math.round(minGain * 100)
+                            + "% from concurrency " + best.getConcurrency() + " to " + concurrency;
+                    break;
+                }
+                best = step;
+                if (concurrency >= maxConcurrency) {
+                    stopReason = "reached maxConcurrency " + maxConcurrency + " within SLO";
+                    break;
+                }
+                concurrency = Math.min(maxConcurrency, Math.max(concurrency + 1, (int) Math.round(concurrency * growth)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new CapacityReport(steps, best, stopReason);
+    }
+
+    private CapacityReport.Step runStep(ExecutorService executor, int concurrency) throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder requests = new LongAdder();
+        LongAdder errors = new LongAdder();
+        AtomicLong sequence = new AtomicLong();
+        AtomicLong lastCompletionNanos = new AtomicLong();
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+        long endNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(stepMillis);
+
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(() -> {
+                try {
+                    long sentNanos;
+                    while ((sentNanos = System.nanoTime()) < endNanos && !Thread.currentThread().isInterrupted()) {
+                        QuoteRequest request = scenarios.get((int) (sequence.getAndIncrement() % scenarios.size()));
+                        QuoteResult result = client.execute(request);
+                        // Requests sent during warm-up still load the API but are not measured
+                        if (sentNanos >= measureFromNanos) {
+                            long completedNanos = System.nanoTime();
+                            lastCompletionNanos.accumulateAndGet(completedNanos, Math::max);
+                            requests.increment();
+                            latency.recordNanos(result.getLatencyNanos());
+                            if (!result.isSuccess()) {
+                                errors.increment();
+                            }
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+
+        long measured = requests.sum();
+        double errorRate = measured == 0 ? 0 : (double) errors.sum() / measured;
+        String breach = null;
+        if (measured == 0) {
+            breach = "no request completed";
+        } else if (errorRate > maxErrorRate) {
+            breach = String.format("error rate %.2f%% > %.2f%%", errorRate * 100, maxErrorRate * 100);
+        } else if (latency.getValueAtPercentile(99) > sloP99Micros) {
+            breach = String.format("p99 %.1fms > %.1fms", latency.getValueAtPercentile(99) / 1000.0, sloP99Micros / 1000.0);
+        }
+        // Requests sent just before the end complete after it, so the window runs to the last completion
+        long windowNanos = (measured == 0 ? endNanos : lastCompletionNanos.get()) - measureFromNanos;
+        return new CapacityReport.Step(concurrency, measured, errors.sum(), Math.max(1, windowNanos), latency, breach);
+    }
+}
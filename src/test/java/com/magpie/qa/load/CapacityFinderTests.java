@@ -0,0 +1,79 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.QuoteClient;
+import com.magpie.qa.support.QuoteRequest;
+import com.magpie.qa.support.StubQuoteServer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class CapacityFinderTests {
+
+    private static final QuoteRequest ARBITRUM_QUOTE = QuoteRequest.quote()
+            .param("network", "arbitrum").param("sellAmount", "1000000").build();
+    private static final QuoteRequest OPTIMISM_QUOTE = QuoteRequest.quote()
+            .param("network", "optimism").param("sellAmount", "1000000").build();
+
+    @Test(description = "SELF-CAPACITY-01: The ramp stops where throughput saturates at the server's capacity")
+    public void testStopsAtSaturation() throws Exception {
+        // 4 server threads x 10ms service time = ~400 req/s, whatever the client concurrency
+        try (StubQuoteServer stub = StubQuoteServer.start(4)) {
+            stub.setResponseDelayMillis(10);
+            CapacityReport report = new CapacityFinder(new QuoteClient(stub.getBaseUri()), Collections.singletonList(ARBITRUM_QUOTE), 1_000, 0.01)
+                    .ramp(1, 64, 2.0)
+                    .stepMillis(500, 100)
+                    // Beyond 4 users throughput still creeps up a little as client-side gaps are filled
+                    .minGain(0.2)
+                    .find();
+
+            Assert.assertTrue(report.getStopReason().startsWith("saturated"), report.toString());
+            Assert.assertTrue(report.getKneeConcurrency() == 4 || report.getKneeConcurrency() == 8, report.toString());
+            Assert.assertTrue(report.getMaxSustainableRps() > 200 && report.getMaxSustainableRps() < 440, report.toString());
+            Assert.assertTrue(report.getSteps().get(0).getThroughput() < report.getMaxSustainableRps() / 2, report.toString());
+
+            Path csv = Paths.get("target", "capacity-selftest", "curve.csv");
+            report.writeCsv(csv);
+            List<String> lines = Files.readAllLines(csv);
+            Assert.assertEquals(lines.size(), report.getSteps().size() + 1);
+            Assert.assertTrue(lines.get(1).startsWith("1,"), lines.toString());
+        }
+    }
+
+    @Test(description = "SELF-CAPACITY-02: The ramp stops at the first step whose p99 breaks the latency SLO")
+    public void testStopsAtLatencySlo() throws Exception {
+        // One server thread: 4 users queue behind each other, so p99 jumps from ~20ms to ~80ms
+        try (StubQuoteServer stub = StubQuoteServer.start(1)) {
+            stub.setResponseDelayMillis(20);
+            CapacityReport report = new CapacityFinder(new QuoteClient(stub.getBaseUri()), Collections.singletonList(ARBITRUM_QUOTE), 50, 0.01)
+                    .ramp(1, 16, 4.0)
+                    .stepMillis(500, 100)
+                    .find();
+
+            Assert.assertEquals(report.getSteps().size(), 2, report.toString());
+            Assert.assertTrue(report.getStopReason().contains("p99"), report.toString());
+            Assert.assertEquals(report.getKneeConcurrency(), 1, report.toString());
+            Assert.assertTrue(report.getMaxSustainableRps() > 25 && report.getMaxSustainableRps() < 55, report.toString());
+        }
+    }
+
+    @Test(description = "SELF-CAPACITY-03: An error rate above the SLO stops the ramp with no sustainable throughput")
+    public void testStopsAtErrorSlo() throws Exception {
+        try (StubQuoteServer stub = StubQuoteServer.start()) {
+            stub.setFailingNetworks("optimism");
+            CapacityReport report = new CapacityFinder(new QuoteClient(stub.getBaseUri()), Arrays.asList(ARBITRUM_QUOTE, OPTIMISM_QUOTE), 1_000, 0.01)
+                    .stepMillis(300, 50)
+                    .find();
+
+            Assert.assertEquals(report.getSteps().size(), 1, report.toString());
+            Assert.assertTrue(report.getStopReason().contains("error rate"), report.toString());
+            Assert.assertEquals(report.getMaxSustainableRps(), 0.0);
+            Assert.assertEquals(report.getSteps().get(0).getErrorRate(), 0.5, 0.05);
+        }
+    }
+}
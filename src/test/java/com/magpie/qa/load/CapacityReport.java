@@ -0,0 +1,154 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Throughput-vs-latency curve of a {@link CapacityFinder} ramp: one {@link Step} per concurrency
+ * level, the highest throughput sustained within the SLO, and why the ramp stopped.
+ */
+public class CapacityReport {
+
+    private final List<Step> steps;
+    private final Step best;
+    private final String stopReason;
+
+    CapacityReport(List<Step> steps, Step best, String stopReason) {
+        this.steps = Collections.unmodifiableList(steps);
+        this.best = best;
+        this.stopReason = stopReason;
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * Requests per second of the best step within the SLO, or 0 when even the first step broke it.
+     */
+    public double getMaxSustainableRps() {
+        return best == null ? 0 : best.getThroughput();
+    }
+
+    /**
+     * Concurrency of the best step within the SLO, or 0 when even the first step broke it.
+     */
+    public int getKneeConcurrency() {
+        return best == null ? 0 : best.getConcurrency();
+    }
+
+    /**
+     * Why the ramp stopped: an SLO breach, saturation (throughput stopped growing) or the
+     * concurrency limit.
+     */
+    public String getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * The curve, one row per step; latencies in microseconds.
+     */
+    public void writeCsv(Path target) throws IOException {
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        try (Writer out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            out.write("concurrency,requests,errors,errorRate,requestsPerSecond,p50Micros,p90Micros,p99Micros,maxMicros,withinSlo\n");
+            for (Step step : steps) {
+                LatencyHistogram latency = step.getLatency();
+                out.write(String.format(Locale.ROOT, "%d,%d,%d,%.4f,%.2f,%d,%d,%d,%d,%s%n",
+                        step.getConcurrency(), step.getRequests(), step.getErrors(), step.getErrorRate(),
+                        step.getThroughput(), latency.getValueAtPercentile(50), latency.getValueAtPercentile(90),
+                        latency.getValueAtPercentile(99), latency.getMax(), step.isWithinSlo()));
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Max sustainable throughput %.1f req/s at concurrency %d; stopped: %s%n",
+                getMaxSustainableRps(), getKneeConcurrency(), stopReason));
+        for (Step step : steps) {
+            sb.append(String.format("  %s%n", step));
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Measurements of one concurrency level, taken after its warm-up.
+     */
+    public static final class Step {
+
+        private final int concurrency;
+        private final long requests;
+        private final long errors;
+        private final long windowNanos;
+        private final LatencyHistogram latency;
+        private final String sloBreach;
+
+        Step(int concurrency, long requests, long errors, long windowNanos, LatencyHistogram latency, String sloBreach) {
+            this.concurrency = concurrency;
+            this.requests = requests;
+            this.errors = errors;
+            this.windowNanos = windowNanos;
+            this.latency = latency;
+            this.sloBreach = sloBreach;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        /**
+         * Requests that did not return 200, including transport errors.
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getErrorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+        /**
+         * Requests sent per second of the measurement window.
+         */
+        public double getThroughput() {
+            return windowNanos <= 0 ? 0 : requests * 1e9 / windowNanos;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public boolean isWithinSlo() {
+            return sloBreach == null;
+        }
+
+        /**
+         * How the step broke the SLO, or null when it kept it.
+         */
+        public String getSloBreach() {
+            return sloBreach;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("concurrency %3d: %.1f req/s, errors %.2f%%, latency %s%s", concurrency, getThroughput(),
+                    getErrorRate() * 100, latency.summary(), sloBreach == null ? "" : " -- " + sloBreach);
+        }
+    }
+}
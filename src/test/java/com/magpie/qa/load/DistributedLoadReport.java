@@ -0,0 +1,119 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.LatencyHistogram;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Result of a distributed run: the latest cumulative {@link WorkerSnapshot} of every worker and the
+ * per-endpoint histograms merged across workers. Histogram merging is exact, so merged percentiles
+ * are the same as if a single process had recorded every request.
+ */
+public class DistributedLoadReport {
+
+    private final LoadPlan plan;
+    private final ConcurrentMap<String, WorkerSnapshot> workers = new ConcurrentHashMap<>();
+    private final Set<String> finished = ConcurrentHashMap.newKeySet();
+    private volatile long wallNanos;
+
+    DistributedLoadReport(LoadPlan plan) {
+        this.plan = plan;
+    }
+
+    void update(String worker, WorkerSnapshot snapshot, boolean isFinal) {
+        workers.put(worker, snapshot);
+        if (isFinal) {
+            finished.add(worker);
+        }
+    }
+
+    void joined(String worker) {
+        workers.putIfAbsent(worker, new WorkerSnapshot(0, 0, 0));
+    }
+
+    void finish(long wallNanos) {
+        this.wallNanos = wallNanos;
+    }
+
+    public Map<String, WorkerSnapshot> getWorkers() {
+        return new TreeMap<>(workers);
+    }
+
+    /**
+     * True when every worker delivered its final snapshot.
+     */
+    public boolean isComplete() {
+        return finished.containsAll(workers.keySet());
+    }
+
+    /**
+     * Response time per endpoint, merged across workers.
+     */
+    public Map<String, LatencyHistogram> getResponseTimes() {
+        Map<String, LatencyHistogram> merged = new TreeMap<>();
+        for (WorkerSnapshot snapshot : workers.values()) {
+            for (Map.Entry<String, LatencyHistogram> entry : snapshot.getResponseTimes().entrySet()) {
+                merged.computeIfAbsent(entry.getKey(), k -> new LatencyHistogram()).merge(entry.getValue());
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Response time of every endpoint together.
+     */
+    public LatencyHistogram getOverallResponseTime() {
+        LatencyHistogram overall = new LatencyHistogram();
+        for (LatencyHistogram histogram : getResponseTimes().values()) {
+            overall.merge(histogram);
+        }
+        return overall;
+    }
+
+    public long getSent() {
+        return workers.values().stream().mapToLong(WorkerSnapshot::getSent).sum();
+    }
+
+    public long getErrors() {
+        return workers.values().stream().mapToLong(WorkerSnapshot::getErrors).sum();
+    }
+
+    public long getLateDispatches() {
+        return workers.values().stream().mapToLong(WorkerSnapshot::getLateDispatches).sum();
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * One line for progress output while the run is going.
+     */
+    String progress() {
+        return String.format("%d/%d sent, %d errors, response time %s",
+                getSent(), plan.getArrivals(), getErrors(), getOverallResponseTime().summary());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        double seconds = wallNanos / 1e9;
+        sb.append(String.format("Distributed run: %d workers, %d/%d requests sent in %.1fs (target %.1f req/s), "
+                        + "%d errors, %d late dispatches%s%n",
+                workers.size(), getSent(), plan.getArrivals(), seconds, plan.getRatePerSecond(),
+                getErrors(), getLateDispatches(), isComplete() ? "" : " (INCOMPLETE: some workers did not finish)"));
+        for (Map.Entry<String, LatencyHistogram> entry : getResponseTimes().entrySet()) {
+            sb.append(String.format("  %s response time: %s%n", entry.getKey(), entry.getValue().summary()));
+        }
+        for (Map.Entry<String, WorkerSnapshot> entry : getWorkers().entrySet()) {
+            WorkerSnapshot snapshot = entry.getValue();
+            sb.append(String.format("  worker %s: %d sent, %d errors, %d late%n",
+                    entry.getKey(), snapshot.getSent(), snapshot.getErrors(), snapshot.getLateDispatches()));
+        }
+        return sb.toString().trim();
+    }
+}
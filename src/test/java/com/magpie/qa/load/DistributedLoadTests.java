@@ -0,0 +1,115 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.LatencyHistogram;
+import com.magpie.qa.support.QuoteRequest;
+import com.magpie.qa.support.StubQuoteServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class DistributedLoadTests {
+
+    private StubQuoteServer stub;
+
+    @BeforeClass
+    public void startStub() throws Exception {
+        stub = StubQuoteServer.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        stub.close();
+    }
+
+    @Test(description = "SELF-DIST-01: Histograms sent over the wire and merged keep every percentile exact")
+    public void testMergedHistogramsMatchSingleRecorder() throws Exception {
+        Random random = new Random(3);
+        LatencyHistogram all = new LatencyHistogram();
+        LatencyHistogram merged = new LatencyHistogram();
+        int encodedBytes = 0;
+        for (int worker = 0; worker < 4; worker++) {
+            LatencyHistogram part = new LatencyHistogram();
+            for (int i = 0; i < 50_000; i++) {
+                long micros = (long) Math.exp(random.nextGaussian() + 11);
+                part.record(micros);
+                all.record(micros);
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            part.writeTo(new DataOutputStream(bytes));
+            encodedBytes = Math.max(encodedBytes, bytes.size());
+            merged.merge(LatencyHistogram.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+        }
+
+        Assert.assertEquals(merged.getCount(), all.getCount());
+        Assert.assertEquals(merged.getMin(), all.getMin());
+        Assert.assertEquals(merged.getMax(), all.getMax());
+        for (double percentile : new double[] {50, 90, 99, 99.9, 99.99}) {
+            Assert.assertEquals(merged.getValueAtPercentile(percentile), all.getValueAtPercentile(percentile), "p" + percentile);
+        }
+        Assert.assertTrue(encodedBytes < 16 * 1024, "Snapshot of 50k values took " + encodedBytes + " bytes");
+    }
+
+    @Test(description = "SELF-DIST-02: Worker JVMs on loopback share one schedule and their results are merged")
+    public void testWorkersShareScheduleOverLoopback() throws Exception {
+        LoadPlan plan = new LoadPlan(stub.getBaseUri(), Arrays.asList(
+                QuoteRequest.quote().param("network", "arbitrum").param("sellAmount", "1000").build(),
+                QuoteRequest.quoteIn().param("fromNetwork", "arbitrum").param("sellAmount", "1000").build()),
+                150, 2_000, 16);
+
+        DistributedLoadReport report;
+        try (LoadCoordinator coordinator = LoadCoordinator.onLoopback()) {
+            coordinator.spawnLocalWorkers(3);
+            report = coordinator.run(plan, 3, 30_000);
+        }
+        System.out.println(report);
+
+        Assert.assertTrue(report.isComplete(), report.toString());
+        Assert.assertEquals(report.getWorkers().size(), 3);
+        Assert.assertEquals(report.getSent(), plan.getArrivals());
+        Assert.assertEquals(report.getErrors(), 0);
+        Assert.assertEquals(report.getOverallResponseTime().getCount(), plan.getArrivals());
+        Assert.assertEquals(report.getResponseTimes().keySet(),
+                new TreeSet<>(Arrays.asList(QuoteRequest.QUOTE_ENDPOINT, QuoteRequest.QUOTE_IN_ENDPOINT)));
+        for (WorkerSnapshot worker : report.getWorkers().values()) {
+            Assert.assertEquals(worker.getSent(), plan.getArrivals() / 3, report.toString());
+        }
+        Assert.assertEquals(stub.getRequestCount(), plan.getArrivals());
+    }
+
+    @Test(description = "SELF-DIST-03: Connections that stay silent or hang up do not block or abort the join")
+    public void testStrayConnectionsAreIgnored() throws Exception {
+        LoadPlan plan;
+        DistributedLoadReport report;
+        // Its own stub, so SELF-DIST-02 still counts only its requests
+        try (StubQuoteServer ownStub = StubQuoteServer.start();
+             LoadCoordinator coordinator = LoadCoordinator.onLoopback()) {
+            plan = new LoadPlan(ownStub.getBaseUri(), Collections.singletonList(
+                    QuoteRequest.quote().param("network", "arbitrum").param("sellAmount", "1000").build()),
+                    20, 500, 4);
+            Socket silent = new Socket(InetAddress.getLoopbackAddress(), coordinator.getPort());
+            try {
+                new Socket(InetAddress.getLoopbackAddress(), coordinator.getPort()).close();
+                coordinator.spawnLocalWorkers(1);
+                report = coordinator.run(plan, 1, 30_000);
+            } finally {
+                silent.close();
+            }
+        }
+
+        Assert.assertTrue(report.isComplete(), report.toString());
+        Assert.assertEquals(report.getWorkers().size(), 1);
+        Assert.assertEquals(report.getSent(), plan.getArrivals());
+    }
+}
@@ -0,0 +1,200 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Change-rate and staleness statistics derived from a {@link QuoteTimeSeries}.
+ * <p>
+ * <b>Value lifetime</b> is the time between two observed amountOut changes (the censored runs at the
+ * start and end of the series are ignored). <b>Observed age</b> is, for every poll, the time since
+ * the last observed change: a lower bound on how old the data behind that quote is.
+ * <b>Suggested TTL</b> is the longest cache TTL for which the empirical probability that a cached
+ * amountOut no longer matches the live one stays within the staleness target.
+ */
+public class FreshnessReport {
+
+    private final int samples;
+    private final int successes;
+    private final int distinctAmounts;
+    private final double amountChangeRate;
+    private final double idChangeRate;
+    private final double changesPerMinute;
+    private final List<Long> lifetimesMillis;
+    private final List<Long> agesMillis;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final double stalenessTarget;
+    private final long suggestedTtlMillis;
+
+    private FreshnessReport(QuoteTimeSeries series, double stalenessTarget, long ttlStepMillis) {
+        this.samples = series.size();
+        this.stalenessTarget = stalenessTarget;
+        this.distinctAmounts = series.getDistinctAmounts();
+
+        List<Integer> ok = new ArrayList<>();
+        for (int i = 0; i < series.size(); i++) {
+            latency.record(series.getLatencyMicros(i));
+            if (series.hasAmount(i)) {
+                ok.add(i);
+            }
+        }
+        this.successes = ok.size();
+
+        int amountChanges = 0;
+        int idChanges = 0;
+        long lastChangeAt = -1;
+        List<Long> lifetimes = new ArrayList<>();
+        List<Long> ages = new ArrayList<>();
+        for (int k = 1; k < ok.size(); k++) {
+            int prev = ok.get(k - 1);
+            int cur = ok.get(k);
+            if (series.getIdHash(prev) != series.getIdHash(cur)) {
+                idChanges++;
+            }
+            if (series.getAmountIndex(prev) != series.getAmountIndex(cur)) {
+                amountChanges++;
+                long changedAt = series.getOffsetMillis(cur);
+                if (lastChangeAt >= 0) {
+                    lifetimes.add(changedAt - lastChangeAt);
+                }
+                lastChangeAt = changedAt;
+            }
+            if (lastChangeAt >= 0) {
+                ages.add(series.getOffsetMillis(cur) - lastChangeAt);
+            }
+        }
+        Collections.sort(lifetimes);
+        Collections.sort(ages);
+        this.lifetimesMillis = lifetimes;
+        this.agesMillis = ages;
+
+        int pairs = Math.max(1, ok.size() - 1);
+        this.amountChangeRate = ok.size() < 2 ? 0 : (double) amountChanges / pairs;
+        this.idChangeRate = ok.size() < 2 ? 0 : (double) idChanges / pairs;
+        long spanMillis = ok.size() < 2 ? 0 : series.getOffsetMillis(ok.get(ok.size() - 1)) - series.getOffsetMillis(ok.get(0));
+        this.changesPerMinute = spanMillis == 0 ? 0 : amountChanges * 60_000.0 / spanMillis;
+        this.suggestedTtlMillis = suggestTtl(series, ok, spanMillis, ttlStepMillis);
+    }
+
+    /**
+     * @param stalenessTarget highest acceptable probability (0-1) that a cached quote is stale
+     * @param ttlStepMillis   granularity of the TTL search, usually the polling interval
+     */
+    public static FreshnessReport of(QuoteTimeSeries series, double stalenessTarget, long ttlStepMillis) {
+        return new FreshnessReport(series, stalenessTarget, Math.max(1, ttlStepMillis));
+    }
+
+    /**
+     * Empirical probability that the amountOut seen at a poll differs from the one seen {@code ttlMillis} later.
+     */
+    static double stalenessProbability(QuoteTimeSeries series, List<Integer> ok, long ttlMillis) {
+        int compared = 0;
+        int stale = 0;
+        int j = 0;
+        long last = series.getOffsetMillis(ok.get(ok.size() - 1));
+        for (int k = 0; k < ok.size(); k++) {
+            long target = series.getOffsetMillis(ok.get(k)) + ttlMillis;
+            if (target > last) {
+                break;
+            }
+            // Latest poll at or before the end of the TTL window
+            j = Math.max(j, k);
+            while (j + 1 < ok.size() && series.getOffsetMillis(ok.get(j + 1)) <= target) {
+                j++;
+            }
+            compared++;
+            if (series.getAmountIndex(ok.get(k)) != series.getAmountIndex(ok.get(j))) {
+                stale++;
+            }
+        }
+        return compared == 0 ? 1.0 : (double) stale / compared;
+    }
+
+    private long suggestTtl(QuoteTimeSeries series, List<Integer> ok, long spanMillis, long stepMillis) {
+        if (ok.size() < 2) {
+            return 0;
+        }
+        long best = 0;
+        // Beyond half the observed span too few windows remain to trust the estimate
+        for (long ttl = stepMillis; ttl <= spanMillis / 2; ttl += stepMillis) {
+            if (stalenessProbability(series, ok, ttl) > stalenessTarget) {
+                break;
+            }
+            best = ttl;
+        }
+        return best;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public int getSuccesses() {
+        return successes;
+    }
+
+    public int getDistinctAmounts() {
+        return distinctAmounts;
+    }
+
+    /**
+     * Fraction of consecutive successful polls whose amountOut differed.
+     */
+    public double getAmountChangeRate() {
+        return amountChangeRate;
+    }
+
+    /**
+     * Fraction of consecutive successful polls that returned a different quote id.
+     */
+    public double getIdChangeRate() {
+        return idChangeRate;
+    }
+
+    public double getChangesPerMinute() {
+        return changesPerMinute;
+    }
+
+    public long getLifetimePercentileMillis(double percentile) {
+        return percentile(lifetimesMillis, percentile);
+    }
+
+    public long getAgePercentileMillis(double percentile) {
+        return percentile(agesMillis, percentile);
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getSuggestedTtlMillis() {
+        return suggestedTtlMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Polls: %d (%d with a quote), %d distinct amountOut values%n"
+                        + "amountOut change rate: %.1f%% of polls, %.1f changes/min%n"
+                        + "quote id change rate:  %.1f%% of polls%n"
+                        + "value lifetime: p10=%dms p50=%dms p90=%dms%n"
+                        + "observed age:   p50=%dms p90=%dms max=%dms%n"
+                        + "latency: %s%n"
+                        + "suggested client cache TTL (<= %.0f%% stale): %dms",
+                samples, successes, distinctAmounts,
+                amountChangeRate * 100, changesPerMinute, idChangeRate * 100,
+                getLifetimePercentileMillis(10), getLifetimePercentileMillis(50), getLifetimePercentileMillis(90),
+                getAgePercentileMillis(50), getAgePercentileMillis(90), getAgePercentileMillis(100),
+                latency.summary(), stalenessTarget * 100, suggestedTtlMillis);
+    }
+
+    private static long percentile(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.min(sorted.size() - 1, Math.max(0, index)));
+    }
+}
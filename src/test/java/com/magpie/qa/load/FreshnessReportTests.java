@@ -0,0 +1,43 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.QuoteClient;
+import com.magpie.qa.support.QuoteRequest;
+import com.magpie.qa.support.StubQuoteServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class FreshnessReportTests {
+
+    private StubQuoteServer stub;
+
+    @BeforeClass
+    public void startStub() throws Exception {
+        stub = StubQuoteServer.start();
+        stub.setPriceRefreshMillis(200);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        stub.close();
+    }
+
+    @Test(description = "SELF-FRESHNESS-01: Change rate, lifetime and TTL are derived from the polled series")
+    public void testDerivesChangeRatesFromPolledSeries() throws Exception {
+        QuoteRequest request = QuoteRequest.quote().param("network", "arbitrum").param("sellAmount", "1000").build();
+        QuoteTimeSeries series = new QuoteFreshnessProbe(new QuoteClient(stub.getBaseUri()), request, 20).poll(2_000);
+
+        FreshnessReport report = FreshnessReport.of(series, 0.25, 20);
+        System.out.println(report);
+
+        Assert.assertEquals(report.getSuccesses(), report.getSamples());
+        Assert.assertTrue(report.getSamples() >= 50, report.toString());
+        // The stub issues a new id per response but only moves the price every 200ms
+        Assert.assertEquals(report.getIdChangeRate(), 1.0, 0.0001);
+        Assert.assertTrue(report.getAmountChangeRate() > 0.03 && report.getAmountChangeRate() < 0.3, report.toString());
+        long medianLifetime = report.getLifetimePercentileMillis(50);
+        Assert.assertTrue(medianLifetime >= 150 && medianLifetime <= 300, report.toString());
+        Assert.assertTrue(report.getSuggestedTtlMillis() > 0 && report.getSuggestedTtlMillis() < 200, report.toString());
+    }
+}
@@ -0,0 +1,194 @@
+package com.magpie.qa.load;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands a {@link LoadPlan} to a fixed number of {@link LoadWorker}s and merges what they report into
+ * a {@link DistributedLoadReport}. Workers can be separate JVMs on this host
+ * ({@link #spawnLocalWorkers(int)}) or processes started on other hosts against {@link #getPort()}.
+ */
+public class LoadCoordinator implements AutoCloseable {
+
+    // Time between handing out the plan and the first arrival, so every worker starts on schedule
+    private static final long START_DELAY_MILLIS = Long.getLong("load.startDelayMillis", 2_000);
+    private static final long PROGRESS_INTERVAL_MILLIS = 5_000;
+    private static final long FINISH_GRACE_MILLIS = 60_000;
+    // A worker says HELLO as soon as it connects; anything slower is not a worker and must not hold up the join
+    private static final long HELLO_TIMEOUT_MILLIS = 2_000;
+
+    private final ServerSocket serverSocket;
+    private final List<Process> localWorkers = new ArrayList<>();
+    private final ExecutorService readers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "load-coordinator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LoadCoordinator(InetAddress bindAddress, int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, bindAddress);
+    }
+
+    /**
+     * Coordinator reachable only from this host, on an ephemeral port.
+     */
+    public static LoadCoordinator onLoopback() throws IOException {
+        return new LoadCoordinator(InetAddress.getLoopbackAddress(), 0);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Starts {@code count} worker JVMs on this host with the current classpath. They are destroyed
+     * on {@link #close()} if still running.
+     */
+    public void spawnLocalWorkers(int count) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String host = serverSocket.getInetAddress().isAnyLocalAddress()
+                ? InetAddress.getLoopbackAddress().getHostAddress()
+                : serverSocket.getInetAddress().getHostAddress();
+        for (int i = 0; i < count; i++) {
+            ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    LoadWorker.class.getName(), host, String.valueOf(getPort()), "local-" + (i + 1));
+            localWorkers.add(builder.inheritIO().start());
+        }
+    }
+
+    /**
+     * Waits up to {@code joinTimeoutMillis} for {@code workerCount} workers, distributes the plan and
+     * blocks until every worker has finished or stopped reporting.
+     */
+    public DistributedLoadReport run(LoadPlan plan, int workerCount, long joinTimeoutMillis)
+            throws IOException, InterruptedException {
+        DistributedLoadReport report = new DistributedLoadReport(plan);
+        List<Socket> sockets = new ArrayList<>();
+        List<DataInputStream> inputs = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        long joinDeadline = System.currentTimeMillis() + joinTimeoutMillis;
+        try {
+            while (sockets.size() < workerCount) {
+                serverSocket.setSoTimeout((int) Math.max(1, joinDeadline - System.currentTimeMillis()));
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (SocketTimeoutException e) {
+                    throw new IOException("Only " + sockets.size() + " of " + workerCount + " workers joined within "
+                            + joinTimeoutMillis + "ms");
+                }
+                DataInputStream in;
+                String name;
+                try {
+                    socket.setTcpNoDelay(true);
+                    socket.setSoTimeout((int) Math.max(1, Math.min(HELLO_TIMEOUT_MILLIS, joinDeadline - System.currentTimeMillis())));
+                    in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                    if (in.readByte() != LoadProtocol.HELLO || in.readInt() != LoadProtocol.MAGIC) {
+                        throw new IOException("no HELLO");
+                    }
+                    name = in.readUTF();
+                    socket.setSoTimeout(0);
+                } catch (IOException e) {
+                    // Health checks and port scans connect too, and may stay silent or hang up
+                    System.out.println("WARN: ignoring a connection that is not a load worker: "
+                            + socket.getRemoteSocketAddress() + " (" + e + ")");
+                    closeQuietly(socket);
+                    continue;
+                }
+                if (names.contains(name)) {
+                    name = name + "-" + (sockets.size() + 1);
+                }
+                sockets.add(socket);
+                inputs.add(in);
+                names.add(name);
+                report.joined(name);
+                System.out.println("INFO: worker " + name + " joined from " + socket.getRemoteSocketAddress());
+            }
+
+            long startEpochMillis = System.currentTimeMillis() + START_DELAY_MILLIS;
+            long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(START_DELAY_MILLIS);
+            CountDownLatch done = new CountDownLatch(workerCount);
+            for (int i = 0; i < workerCount; i++) {
+                Socket socket = sockets.get(i);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                LoadProtocol.writePlan(out, plan, i, workerCount, startEpochMillis);
+                out.flush();
+                DataInputStream in = inputs.get(i);
+                String name = names.get(i);
+                readers.execute(() -> {
+                    try {
+                        readReports(in, name, report);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            long finishBy = startNanos + TimeUnit.MILLISECONDS.toNanos(plan.getDurationMillis() + FINISH_GRACE_MILLIS);
+            while (!done.await(PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (System.nanoTime() - finishBy > 0) {
+                    System.out.println("WARN: workers still running after the grace period, reporting what arrived");
+                    break;
+                }
+                System.out.println("INFO: " + report.progress());
+            }
+            report.finish(System.nanoTime() - startNanos);
+            return report;
+        } finally {
+            for (Socket socket : sockets) {
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private static void readReports(DataInputStream in, String name, DistributedLoadReport report) {
+        try {
+            while (true) {
+                byte type = in.readByte();
+                if (type != LoadProtocol.REPORT && type != LoadProtocol.FINAL) {
+                    throw new IOException("Unexpected message type " + type);
+                }
+                report.update(name, LoadProtocol.readSnapshotBody(in), type == LoadProtocol.FINAL);
+                if (type == LoadProtocol.FINAL) {
+                    return;
+                }
+            }
+        } catch (EOFException e) {
+            System.out.println("WARN: worker " + name + " disconnected before finishing");
+        } catch (IOException e) {
+            System.out.println("WARN: lost worker " + name + ": " + e);
+        }
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(serverSocket);
+        readers.shutdownNow();
+        for (Process process : localWorkers) {
+            process.destroy();
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Nothing useful to do
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.QuoteRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What a distributed run sends and when: a fixed arrival rate shared by all workers, cycling through
+ * the given quote/quote-in scenarios for the configured duration.
+ * <p>
+ * Arrival {@code k} is due at {@code start + k / ratePerSecond} and belongs to worker
+ * {@code k % workerCount}, so together the workers produce one evenly spaced stream rather than
+ * several overlapping bursts. Latency is measured from the due time (see {@link ReplayReport}).
+ */
+public final class LoadPlan {
+
+    private final String baseUri;
+    private final List<QuoteRequest> scenarios;
+    private final double ratePerSecond;
+    private final long durationMillis;
+    private final int maxInFlightPerWorker;
+
+    public LoadPlan(String baseUri, List<QuoteRequest> scenarios, double ratePerSecond, long durationMillis,
+                    int maxInFlightPerWorker) {
+        if (scenarios.isEmpty()) {
+            throw new IllegalArgumentException("A load plan needs at least one scenario");
+        }
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("ratePerSecond must be > 0: " + ratePerSecond);
+        }
+        if (maxInFlightPerWorker < 1) {
+            throw new IllegalArgumentException("maxInFlightPerWorker must be >= 1: " + maxInFlightPerWorker);
+        }
+        this.baseUri = baseUri;
+        this.scenarios = Collections.unmodifiableList(new ArrayList<>(scenarios));
+        this.ratePerSecond = ratePerSecond;
+        this.durationMillis = durationMillis;
+        this.maxInFlightPerWorker = maxInFlightPerWorker;
+    }
+
+    public String getBaseUri() {
+        return baseUri;
+    }
+
+    public List<QuoteRequest> getScenarios() {
+        return scenarios;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public int getMaxInFlightPerWorker() {
+        return maxInFlightPerWorker;
+    }
+
+    /**
+     * Total number of arrivals across all workers.
+     */
+    public long getArrivals() {
+        return (long) Math.floor(ratePerSecond * durationMillis / 1000.0);
+    }
+}
@@ -0,0 +1,110 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.LatencyHistogram;
+import com.magpie.qa.support.QuoteRequest;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wire format between {@link LoadCoordinator} and {@link LoadWorker}, over one TCP connection per
+ * worker:
+ * <pre>
+ * worker      -&gt; coordinator  HELLO  magic, worker name
+ * coordinator -&gt; worker       PLAN   worker index/count, start epoch millis, {@link LoadPlan}
+ * worker      -&gt; coordinator  REPORT cumulative {@link WorkerSnapshot}, every report interval
+ * worker      -&gt; coordinator  FINAL  last cumulative snapshot, then the connection is closed
+ * </pre>
+ * Snapshots are cumulative, so the coordinator only keeps the latest one per worker and a lost or
+ * late report never skews the merged result.
+ */
+final class LoadProtocol {
+
+    static final int MAGIC = 0x4d475131; // "MGQ1"
+    static final byte HELLO = 1;
+    static final byte PLAN = 2;
+    static final byte REPORT = 3;
+    static final byte FINAL = 4;
+
+    private LoadProtocol() {
+    }
+
+    static void writePlan(DataOutput out, LoadPlan plan, int workerIndex, int workerCount, long startEpochMillis) throws IOException {
+        out.writeByte(PLAN);
+        out.writeInt(workerIndex);
+        out.writeInt(workerCount);
+        out.writeLong(startEpochMillis);
+        out.writeUTF(plan.getBaseUri());
+        out.writeDouble(plan.getRatePerSecond());
+        out.writeLong(plan.getDurationMillis());
+        out.writeInt(plan.getMaxInFlightPerWorker());
+        out.writeInt(plan.getScenarios().size());
+        for (QuoteRequest request : plan.getScenarios()) {
+            writeRequest(out, request);
+        }
+    }
+
+    static LoadPlan readPlanBody(DataInput in) throws IOException {
+        String baseUri = in.readUTF();
+        double rate = in.readDouble();
+        long duration = in.readLong();
+        int maxInFlight = in.readInt();
+        int count = in.readInt();
+        List<QuoteRequest> scenarios = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            scenarios.add(readRequest(in));
+        }
+        return new LoadPlan(baseUri, scenarios, rate, duration, maxInFlight);
+    }
+
+    static void writeSnapshot(DataOutput out, byte type, WorkerSnapshot snapshot) throws IOException {
+        out.writeByte(type);
+        out.writeLong(snapshot.getSent());
+        out.writeLong(snapshot.getErrors());
+        out.writeLong(snapshot.getLateDispatches());
+        out.writeInt(snapshot.getResponseTimes().size());
+        for (Map.Entry<String, LatencyHistogram> entry : snapshot.getResponseTimes().entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    static WorkerSnapshot readSnapshotBody(DataInput in) throws IOException {
+        WorkerSnapshot snapshot = new WorkerSnapshot(in.readLong(), in.readLong(), in.readLong());
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            snapshot.getResponseTimes().put(in.readUTF(), LatencyHistogram.readFrom(in));
+        }
+        return snapshot;
+    }
+
+    private static void writeRequest(DataOutput out, QuoteRequest request) throws IOException {
+        out.writeUTF(request.getEndpoint());
+        out.writeInt(request.getParams().size());
+        for (Map.Entry<String, List<String>> param : request.getParams().entrySet()) {
+            out.writeUTF(param.getKey());
+            out.writeInt(param.getValue().size());
+            for (String value : param.getValue()) {
+                out.writeUTF(value);
+            }
+        }
+    }
+
+    private static QuoteRequest readRequest(DataInput in) throws IOException {
+        QuoteRequest.Builder builder = QuoteRequest.to(in.readUTF());
+        int params = in.readInt();
+        for (int p = 0; p < params; p++) {
+            String name = in.readUTF();
+            Object[] values = new Object[in.readInt()];
+            for (int v = 0; v < values.length; v++) {
+                values[v] = in.readUTF();
+            }
+            builder.param(name, values);
+        }
+        return builder.build();
+    }
+}
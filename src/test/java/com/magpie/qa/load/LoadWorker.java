@@ -0,0 +1,165 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.LatencyHistogram;
+import com.magpie.qa.support.QuoteClient;
+import com.magpie.qa.support.QuoteRequest;
+import com.magpie.qa.support.QuoteResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One load-generating process of a distributed run. Connects to a {@link LoadCoordinator}, receives
+ * its share of the {@link LoadPlan} and streams cumulative histograms back until the plan is done.
+ * <p>
+ * Start one per JVM, on this host or any other that can reach the coordinator:
+ * <pre>
+ * java -cp target/test-classes:$(cat cp.txt) com.magpie.qa.load.LoadWorker &lt;coordinatorHost&gt; &lt;port&gt; [name]
+ * </pre>
+ * where {@code cp.txt} comes from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt}.
+ * Workers on different hosts share the schedule through wall-clock time, so their clocks should be
+ * NTP-synchronised; skew only shifts a worker's arrivals, it does not change the rate.
+ */
+public class LoadWorker {
+
+    private static final long REPORT_INTERVAL_MILLIS = Long.getLong("load.reportIntervalMillis", 1_000);
+    private static final long LATE_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+
+    private final String coordinatorHost;
+    private final int coordinatorPort;
+    private final String name;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong lateDispatches = new AtomicLong();
+    private final ConcurrentMap<String, LatencyHistogram> responseTimes = new ConcurrentHashMap<>();
+
+    public LoadWorker(String coordinatorHost, int coordinatorPort, String name) {
+        this.coordinatorHost = coordinatorHost;
+        this.coordinatorPort = coordinatorPort;
+        this.name = name;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: LoadWorker <coordinatorHost> <port> [name]");
+            System.exit(2);
+        }
+        String name = args.length > 2 ? args[2] : ManagementFactory.getRuntimeMXBean().getName();
+        new LoadWorker(args[0], Integer.parseInt(args[1]), name).run();
+    }
+
+    public void run() throws IOException, InterruptedException {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(coordinatorHost, coordinatorPort), CONNECT_TIMEOUT_MS);
+            socket.setTcpNoDelay(true);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+            out.writeByte(LoadProtocol.HELLO);
+            out.writeInt(LoadProtocol.MAGIC);
+            out.writeUTF(name);
+            out.flush();
+
+            byte type = in.readByte();
+            if (type != LoadProtocol.PLAN) {
+                throw new IOException("Expected a plan from the coordinator, got message type " + type);
+            }
+            int workerIndex = in.readInt();
+            int workerCount = in.readInt();
+            long startEpochMillis = in.readLong();
+            LoadPlan plan = LoadProtocol.readPlanBody(in);
+            System.out.println("INFO: " + name + " running share " + (workerIndex + 1) + "/" + workerCount
+                    + " of " + plan.getRatePerSecond() + " req/s against " + plan.getBaseUri());
+
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "load-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduleAtFixedRate(() -> {
+                try {
+                    send(out, LoadProtocol.REPORT);
+                } catch (IOException e) {
+                    // The coordinator went away; the run still finishes and the final send fails loudly
+                }
+            }, REPORT_INTERVAL_MILLIS, REPORT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            try {
+                execute(plan, workerIndex, workerCount, startEpochMillis);
+            } finally {
+                reporter.shutdownNow();
+            }
+            send(out, LoadProtocol.FINAL);
+        }
+    }
+
+    private void execute(LoadPlan plan, int workerIndex, int workerCount, long startEpochMillis) throws InterruptedException {
+        QuoteClient client = new QuoteClient(plan.getBaseUri());
+        List<QuoteRequest> scenarios = plan.getScenarios();
+        int maxInFlight = plan.getMaxInFlightPerWorker();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ExecutorService executor = Executors.newFixedThreadPool(maxInFlight, runnable -> {
+            Thread thread = new Thread(runnable, "load-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Translate the shared wall-clock start into this JVM's monotonic clock once
+        long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(startEpochMillis - System.currentTimeMillis());
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / plan.getRatePerSecond();
+        try {
+            for (long k = workerIndex; k < plan.getArrivals(); k += workerCount) {
+                long scheduledNanos = startNanos + (long) (k * intervalNanos);
+                ReplayDriver.sleepUntil(scheduledNanos);
+                inFlight.acquire();
+
+                long lag = Math.max(0, System.nanoTime() - scheduledNanos);
+                if (lag > LATE_THRESHOLD_NANOS) {
+                    lateDispatches.incrementAndGet();
+                }
+                QuoteRequest request = scenarios.get((int) ((k / workerCount) % scenarios.size()));
+                sent.incrementAndGet();
+                executor.execute(() -> {
+                    try {
+                        QuoteResult result = client.execute(request);
+                        responseTimes.computeIfAbsent(request.getEndpoint(), e -> new LatencyHistogram())
+                                .recordNanos(result.getLatencyNanos() + lag);
+                        if (!result.isSuccess()) {
+                            errors.incrementAndGet();
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            inFlight.acquire(maxInFlight);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void send(DataOutputStream out, byte type) throws IOException {
+        WorkerSnapshot snapshot = new WorkerSnapshot(sent.get(), errors.get(), lateDispatches.get());
+        snapshot.getResponseTimes().putAll(responseTimes);
+        synchronized (out) {
+            LoadProtocol.writeSnapshot(out, type, snapshot);
+            out.flush();
+        }
+    }
+}
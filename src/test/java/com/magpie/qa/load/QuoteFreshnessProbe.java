@@ -0,0 +1,44 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.QuoteClient;
+import com.magpie.qa.support.QuoteRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls one fixed quote scenario at a fixed rate and records the responses as a {@link QuoteTimeSeries}.
+ * Polls are sequential: when a response takes longer than the interval the next poll is sent
+ * immediately instead of overlapping, so the probe itself never adds concurrent load.
+ */
+public class QuoteFreshnessProbe {
+
+    private final QuoteClient client;
+    private final QuoteRequest request;
+    private final long intervalMillis;
+
+    public QuoteFreshnessProbe(QuoteClient client, QuoteRequest request, long intervalMillis) {
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("intervalMillis must be >= 1: " + intervalMillis);
+        }
+        this.client = client;
+        this.request = request;
+        this.intervalMillis = intervalMillis;
+    }
+
+    public QuoteTimeSeries poll(long durationMillis) throws InterruptedException {
+        QuoteTimeSeries series = new QuoteTimeSeries(System.currentTimeMillis());
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        long next = startNanos;
+        while (next < endNanos) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            long sentAt = System.nanoTime();
+            series.add(TimeUnit.NANOSECONDS.toMillis(sentAt - startNanos), client.execute(request));
+            next = Math.max(next + TimeUnit.MILLISECONDS.toNanos(intervalMillis), System.nanoTime());
+        }
+        return series;
+    }
+}
@@ -0,0 +1,139 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.QuoteResult;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compact column-oriented record of repeated polls of one quote scenario. Each sample costs 18 bytes:
+ * amountOut strings are dictionary-encoded (they repeat until the price moves) and quote ids are
+ * only kept as a hash, which is enough to tell whether consecutive responses were the same quote.
+ */
+public class QuoteTimeSeries {
+
+    private static final int NO_VALUE = -1;
+
+    private final long startEpochMillis;
+    private final List<String> amountDictionary = new ArrayList<>();
+    private final Map<String, Integer> amountIndexes = new HashMap<>();
+
+    private int size;
+    private int[] offsetMillis = new int[256];
+    private int[] latencyMicros = new int[256];
+    private short[] statusCodes = new short[256];
+    private int[] amountIndex = new int[256];
+    private int[] idHash = new int[256];
+
+    public QuoteTimeSeries(long startEpochMillis) {
+        this.startEpochMillis = startEpochMillis;
+    }
+
+    public void add(long offsetMillis, QuoteResult result) {
+        if (size == this.offsetMillis.length) {
+            grow();
+        }
+        this.offsetMillis[size] = (int) offsetMillis;
+        latencyMicros[size] = (int) Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMicros(result.getLatencyNanos()));
+        statusCodes[size] = (short) result.getStatusCode();
+        String amountOut = result.isSuccess() ? result.getAmountOut() : null;
+        amountIndex[size] = amountOut == null ? NO_VALUE : indexOf(amountOut);
+        String id = result.getQuoteId();
+        idHash[size] = id == null ? 0 : id.hashCode();
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    public int getOffsetMillis(int i) {
+        return offsetMillis[i];
+    }
+
+    public int getLatencyMicros(int i) {
+        return latencyMicros[i];
+    }
+
+    public int getStatusCode(int i) {
+        return statusCodes[i];
+    }
+
+    /**
+     * Whether sample {@code i} carried an amountOut.
+     */
+    public boolean hasAmount(int i) {
+        return amountIndex[i] != NO_VALUE;
+    }
+
+    /**
+     * Dictionary index of the amountOut of sample {@code i}; equal indexes mean equal amounts.
+     */
+    public int getAmountIndex(int i) {
+        return amountIndex[i];
+    }
+
+    public String getAmountOut(int i) {
+        return hasAmount(i) ? amountDictionary.get(amountIndex[i]) : null;
+    }
+
+    public int getIdHash(int i) {
+        return idHash[i];
+    }
+
+    /**
+     * Number of distinct amountOut values observed.
+     */
+    public int getDistinctAmounts() {
+        return amountDictionary.size();
+    }
+
+    /**
+     * Writes one CSV row per sample: epoch millis, latency, status, amountOut and id hash.
+     */
+    public void writeCsv(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("epochMillis,latencyMicros,status,amountOut,idHash\n");
+            for (int i = 0; i < size; i++) {
+                String amountOut = getAmountOut(i);
+                out.write((startEpochMillis + offsetMillis[i]) + "," + latencyMicros[i] + "," + statusCodes[i] + ","
+                        + (amountOut == null ? "" : amountOut) + "," + Integer.toHexString(idHash[i]) + "\n");
+            }
+        }
+    }
+
+    private int indexOf(String amountOut) {
+        Integer index = amountIndexes.get(amountOut);
+        if (index == null) {
+            index = amountDictionary.size();
+            amountDictionary.add(amountOut);
+            amountIndexes.put(amountOut, index);
+        }
+        return index;
+    }
+
+    private void grow() {
+        int capacity = offsetMillis.length * 2;
+        offsetMillis = Arrays.copyOf(offsetMillis, capacity);
+        latencyMicros = Arrays.copyOf(latencyMicros, capacity);
+        statusCodes = Arrays.copyOf(statusCodes, capacity);
+        amountIndex = Arrays.copyOf(amountIndex, capacity);
+        idHash = Arrays.copyOf(idHash, capacity);
+    }
+}
@@ -0,0 +1,122 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.QuoteClient;
+import com.magpie.qa.support.QuoteResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a captured quote/quote-in traffic log against the configured base URI.
+ * <p>
+ * The capture is streamed line by line, so its size is bounded by disk rather than heap. Each
+ * request is dispatched at its original offset from the first entry divided by {@code speed}
+ * (1.0 = original timing, 2.0 = twice as fast, 0 = as fast as {@code maxInFlight} allows). Dispatch
+ * never waits for earlier responses, so slow responses do not distort the arrival pattern until
+ * {@code maxInFlight} requests are outstanding.
+ */
+public class ReplayDriver {
+
+    private static final long LATE_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final QuoteClient client;
+    private final double speed;
+    private final int maxInFlight;
+    private ResultsLog resultsLog;
+
+    public ReplayDriver(QuoteClient client, double speed, int maxInFlight) {
+        if (speed < 0) {
+            throw new IllegalArgumentException("speed must be >= 0: " + speed);
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be >= 1: " + maxInFlight);
+        }
+        this.client = client;
+        this.speed = speed;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Additionally appends every request to {@code log}, with the endpoint as scenario name.
+     */
+    public ReplayDriver recordTo(ResultsLog log) {
+        this.resultsLog = log;
+        return this;
+    }
+
+    public ReplayReport replay(Path capture) throws IOException, InterruptedException {
+        try (ReplayLogReader reader = new ReplayLogReader(capture)) {
+            return replay(reader);
+        }
+    }
+
+    public ReplayReport replay(ReplayLogReader reader) throws IOException, InterruptedException {
+        ReplayReport report = new ReplayReport();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ExecutorService executor = Executors.newFixedThreadPool(maxInFlight, runnable -> {
+            Thread thread = new Thread(runnable, "replay-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long startNanos = System.nanoTime();
+        long firstTimestamp = -1;
+        try {
+            ReplayLogReader.ReplayEntry entry;
+            while ((entry = reader.next()) != null) {
+                if (firstTimestamp < 0) {
+                    firstTimestamp = entry.getTimestampMillis();
+                }
+                long scheduledNanos = startNanos + offsetNanos(entry.getTimestampMillis() - firstTimestamp);
+                sleepUntil(scheduledNanos);
+                inFlight.acquire();
+
+                long lag = Math.max(0, System.nanoTime() - scheduledNanos);
+                if (lag > LATE_THRESHOLD_NANOS) {
+                    report.lateDispatch();
+                }
+                ReplayLogReader.ReplayEntry current = entry;
+                executor.execute(() -> {
+                    try {
+                        QuoteResult result = client.execute(current.getRequest());
+                        report.record(result, lag);
+                        if (resultsLog != null) {
+                            resultsLog.append(resultsLog.scenarioId(result.getRequest().getEndpoint()), result);
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            // Wait for every outstanding request before reporting
+            inFlight.acquire(maxInFlight);
+        } finally {
+            executor.shutdownNow();
+        }
+        report.finish(reader.getSkippedLines(), System.nanoTime() - startNanos);
+        return report;
+    }
+
+    private long offsetNanos(long offsetMillis) {
+        if (speed == 0 || offsetMillis <= 0) {
+            // Out-of-order log lines are sent immediately rather than waited for
+            return 0;
+        }
+        return (long) (TimeUnit.MILLISECONDS.toNanos(offsetMillis) / speed);
+    }
+
+    static void sleepUntil(long deadlineNanos) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
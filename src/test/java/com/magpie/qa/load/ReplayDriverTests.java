@@ -0,0 +1,69 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.QuoteClient;
+import com.magpie.qa.support.QuoteRequest;
+import com.magpie.qa.support.StubQuoteServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+public class ReplayDriverTests {
+
+    private StubQuoteServer stub;
+
+    @BeforeClass
+    public void startStub() throws Exception {
+        stub = StubQuoteServer.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        stub.close();
+    }
+
+    @Test(description = "SELF-REPLAY-01: JSONL and access-log lines are parsed, other endpoints are skipped")
+    public void testParsesBothCaptureFormats() {
+        ReplayLogReader.ReplayEntry json = ReplayLogReader.parse(
+                "{\"timestamp\":1000,\"path\":\"/aggregator/quote\",\"params\":{\"network\":\"arbitrum\",\"liquiditySources\":[\"sushi\",\"uniswap-v3\"]}}");
+        Assert.assertNotNull(json);
+        Assert.assertEquals(json.getTimestampMillis(), 1000L);
+        Assert.assertEquals(json.getRequest().getParam("network"), "arbitrum");
+        Assert.assertEquals(json.getRequest().getParams().get("liquiditySources").size(), 2);
+
+        ReplayLogReader.ReplayEntry log = ReplayLogReader.parse(
+                "10.0.0.1 - - [10/Jun/2024:13:55:36 +0000] \"GET /aggregator/quote-in?fromNetwork=arbitrum&toNetwork=optimism HTTP/1.1\" 200 2326");
+        Assert.assertNotNull(log);
+        Assert.assertEquals(log.getRequest().getEndpoint(), QuoteRequest.QUOTE_IN_ENDPOINT);
+        Assert.assertEquals(log.getRequest().getParam("toNetwork"), "optimism");
+
+        Assert.assertNull(ReplayLogReader.parse("10.0.0.1 - - [10/Jun/2024:13:55:36 +0000] \"GET /health HTTP/1.1\" 200 2"));
+        Assert.assertNull(ReplayLogReader.parse("not a log line"));
+    }
+
+    @Test(description = "SELF-REPLAY-02: Inter-arrival timing is preserved and scaled by the speed factor")
+    public void testReplayPreservesScaledTiming() throws Exception {
+        String capture = ""
+                + "{\"ts\":\"2024-06-10T13:55:36.000Z\",\"path\":\"/aggregator/quote\",\"params\":{\"network\":\"arbitrum\"}}\n"
+                + "{\"ts\":\"2024-06-10T13:55:36.200Z\",\"path\":\"/aggregator/quote\",\"params\":{\"network\":\"arbitrum\"}}\n"
+                + "{\"ts\":\"2024-06-10T13:55:36.400Z\",\"path\":\"/aggregator/quote-in\",\"params\":{\"fromNetwork\":\"arbitrum\"}}\n"
+                + "{\"ts\":\"2024-06-10T13:55:36.600Z\",\"path\":\"/aggregator/quote\",\"params\":{}}\n"
+                + "garbage\n";
+
+        ReplayDriver driver = new ReplayDriver(new QuoteClient(stub.getBaseUri()), 2.0, 4);
+        ReplayReport report = driver.replay(new ReplayLogReader(new BufferedReader(new StringReader(capture))));
+
+        Assert.assertEquals(report.getRequestCount(), 4);
+        Assert.assertEquals(report.getSkippedLines(), 1);
+        // 600ms of captured traffic at 2x speed should take roughly 300ms
+        Assert.assertTrue(report.getWallNanos() >= TimeUnit.MILLISECONDS.toNanos(290), report.toString());
+        Assert.assertTrue(report.getWallNanos() < TimeUnit.SECONDS.toNanos(5), report.toString());
+        Assert.assertEquals(report.getEndpoints().get(QuoteRequest.QUOTE_ENDPOINT).getStatusCounts().get(200), Long.valueOf(2));
+        Assert.assertEquals(report.getEndpoints().get(QuoteRequest.QUOTE_ENDPOINT).getStatusCounts().get(400), Long.valueOf(1));
+        Assert.assertEquals(report.getEndpoints().get(QuoteRequest.QUOTE_IN_ENDPOINT).getStatusCounts().get(200), Long.valueOf(1));
+    }
+}
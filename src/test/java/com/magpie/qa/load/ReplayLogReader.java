@@ -0,0 +1,212 @@
+package com.magpie.qa.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magpie.qa.support.QuoteRequest;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Streams a traffic capture one line at a time. Two formats are recognised per line:
+ * <ul>
+ *     <li>JSONL, one object per line: {@code {"timestamp": 1718000000123, "path": "/aggregator/quote",
+ *     "params": {"network": "arbitrum", ...}}}. The timestamp may be epoch millis or ISO-8601
+ *     ({@code ts}/{@code time} are accepted too), and {@code url} with a query string may replace
+ *     {@code path}/{@code params}.</li>
+ *     <li>Common/combined access-log lines, e.g.
+ *     {@code 10.0.0.1 - - [10/Jun/2024:13:55:36 +0000] "GET /aggregator/quote?network=arbitrum&... HTTP/1.1" 200 2326}.</li>
+ * </ul>
+ * Lines that are blank, unparsable or for other endpoints are skipped and counted.
+ */
+public class ReplayLogReader implements Closeable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern ACCESS_LOG = Pattern.compile(
+            "^\\S+ \\S+ \\S+ \\[([^\\]]+)] \"GET (\\S+) [^\"]*\".*$");
+    private static final DateTimeFormatter ACCESS_LOG_TIME =
+            DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.ENGLISH);
+
+    private final BufferedReader reader;
+    private long skippedLines;
+
+    public ReplayLogReader(Path file) throws IOException {
+        this(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+    }
+
+    public ReplayLogReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the next replayable entry, or null at end of input.
+     */
+    public ReplayEntry next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            ReplayEntry entry = parse(line.trim());
+            if (entry != null) {
+                return entry;
+            }
+            if (!line.trim().isEmpty()) {
+                skippedLines++;
+            }
+        }
+        return null;
+    }
+
+    public long getSkippedLines() {
+        return skippedLines;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    static ReplayEntry parse(String line) {
+        if (line.isEmpty()) {
+            return null;
+        }
+        try {
+            return line.charAt(0) == '{' ? parseJson(line) : parseAccessLog(line);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ReplayEntry parseJson(String line) throws IOException {
+        JsonNode node = MAPPER.readTree(line);
+        JsonNode time = first(node, "timestamp", "ts", "time");
+        if (time == null) {
+            return null;
+        }
+        long timestampMillis = time.isNumber() ? time.asLong() : parseIsoMillis(time.asText());
+
+        QuoteRequest.Builder builder;
+        JsonNode url = first(node, "url", "uri");
+        if (url != null) {
+            builder = fromPathAndQuery(url.asText());
+        } else {
+            JsonNode path = first(node, "path", "endpoint");
+            builder = path == null ? null : builderFor(path.asText());
+        }
+        if (builder == null) {
+            return null;
+        }
+        JsonNode params = node.get("params");
+        if (params != null) {
+            Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (field.getValue().isArray()) {
+                    for (JsonNode value : field.getValue()) {
+                        builder.param(field.getKey(), value.asText());
+                    }
+                } else {
+                    builder.param(field.getKey(), field.getValue().asText());
+                }
+            }
+        }
+        return new ReplayEntry(timestampMillis, builder.build());
+    }
+
+    private static ReplayEntry parseAccessLog(String line) throws UnsupportedEncodingException {
+        Matcher matcher = ACCESS_LOG.matcher(line);
+        if (!matcher.matches()) {
+            return null;
+        }
+        QuoteRequest.Builder builder = fromPathAndQuery(matcher.group(2));
+        if (builder == null) {
+            return null;
+        }
+        long timestampMillis = OffsetDateTime.parse(matcher.group(1), ACCESS_LOG_TIME).toInstant().toEpochMilli();
+        return new ReplayEntry(timestampMillis, builder.build());
+    }
+
+    private static QuoteRequest.Builder fromPathAndQuery(String url) throws UnsupportedEncodingException {
+        // Absolute URLs are reduced to their path so the capture replays against the configured base URI
+        int schemeEnd = url.indexOf("://");
+        if (schemeEnd >= 0) {
+            int pathStart = url.indexOf('/', schemeEnd + 3);
+            url = pathStart < 0 ? "/" : url.substring(pathStart);
+        }
+        int q = url.indexOf('?');
+        QuoteRequest.Builder builder = builderFor(q < 0 ? url : url.substring(0, q));
+        if (builder != null && q >= 0) {
+            for (String pair : url.substring(q + 1).split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int eq = pair.indexOf('=');
+                String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), "UTF-8");
+                builder.param(name, eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+            }
+        }
+        return builder;
+    }
+
+    private static QuoteRequest.Builder builderFor(String path) {
+        if (QuoteRequest.QUOTE_ENDPOINT.equals(path)) {
+            return QuoteRequest.quote();
+        }
+        if (QuoteRequest.QUOTE_IN_ENDPOINT.equals(path)) {
+            return QuoteRequest.quoteIn();
+        }
+        return null;
+    }
+
+    private static long parseIsoMillis(String text) {
+        try {
+            return Instant.parse(text).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+        }
+    }
+
+    private static JsonNode first(JsonNode node, String... names) {
+        for (String name : names) {
+            if (node.hasNonNull(name)) {
+                return node.get(name);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A captured request and the wall-clock time it originally arrived.
+     */
+    public static final class ReplayEntry {
+
+        private final long timestampMillis;
+        private final QuoteRequest request;
+
+        ReplayEntry(long timestampMillis, QuoteRequest request) {
+            this.timestampMillis = timestampMillis;
+            this.request = request;
+        }
+
+        public long getTimestampMillis() {
+            return timestampMillis;
+        }
+
+        public QuoteRequest getRequest() {
+            return request;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.LatencyHistogram;
+import com.magpie.qa.support.QuoteResult;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency and status breakdown of a replay run.
+ * <p>
+ * Two latencies are kept per request: <i>service time</i>, measured from the moment the request was
+ * sent, and <i>response time</i>, measured from the moment the capture says it should have been sent.
+ * When the driver falls behind schedule the two diverge, which keeps queueing delay visible instead of
+ * silently hiding it (coordinated omission).
+ */
+public class ReplayReport {
+
+    private final ConcurrentMap<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final AtomicLong lateDispatches = new AtomicLong();
+    private volatile long skippedLines;
+    private volatile long wallNanos;
+
+    void record(QuoteResult result, long scheduleLagNanos) {
+        EndpointStats stats = endpoints.computeIfAbsent(result.getRequest().getEndpoint(), k -> new EndpointStats());
+        stats.serviceTime.recordNanos(result.getLatencyNanos());
+        stats.responseTime.recordNanos(result.getLatencyNanos() + scheduleLagNanos);
+        stats.statuses.computeIfAbsent(result.getStatusCode(), k -> new LongAdder()).increment();
+    }
+
+    void lateDispatch() {
+        lateDispatches.incrementAndGet();
+    }
+
+    void finish(long skippedLines, long wallNanos) {
+        this.skippedLines = skippedLines;
+        this.wallNanos = wallNanos;
+    }
+
+    public Map<String, EndpointStats> getEndpoints() {
+        return new TreeMap<>(endpoints);
+    }
+
+    public long getRequestCount() {
+        long total = 0;
+        for (EndpointStats stats : endpoints.values()) {
+            total += stats.serviceTime.getCount();
+        }
+        return total;
+    }
+
+    /**
+     * Requests that could not be sent within 10ms of their scheduled time.
+     */
+    public long getLateDispatches() {
+        return lateDispatches.get();
+    }
+
+    public long getSkippedLines() {
+        return skippedLines;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        double seconds = wallNanos / 1e9;
+        sb.append(String.format("Replayed %d requests in %.1fs (%.1f req/s), %d late dispatches, %d skipped lines%n",
+                getRequestCount(), seconds, seconds > 0 ? getRequestCount() / seconds : 0.0, getLateDispatches(), skippedLines));
+        for (Map.Entry<String, EndpointStats> entry : getEndpoints().entrySet()) {
+            EndpointStats stats = entry.getValue();
+            sb.append(String.format("  %s%n", entry.getKey()));
+            sb.append(String.format("    service time:  %s%n", stats.serviceTime.summary()));
+            sb.append(String.format("    response time: %s%n", stats.responseTime.summary()));
+            sb.append(String.format("    statuses:      %s%n", stats.getStatusCounts()));
+        }
+        return sb.toString();
+    }
+
+    public static final class EndpointStats {
+
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+        private final LatencyHistogram responseTime = new LatencyHistogram();
+        private final ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        public LatencyHistogram getServiceTime() {
+            return serviceTime;
+        }
+
+        public LatencyHistogram getResponseTime() {
+            return responseTime;
+        }
+
+        /**
+         * Request count per HTTP status; transport failures are counted under -1.
+         */
+        public Map<Integer, Long> getStatusCounts() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            for (Map.Entry<Integer, LongAdder> entry : statuses.entrySet()) {
+                counts.put(entry.getKey(), entry.getValue().sum());
+            }
+            return counts;
+        }
+    }
+}
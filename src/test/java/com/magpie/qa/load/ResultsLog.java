@@ -0,0 +1,215 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.QuoteResult;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Append-only, memory-mapped log of every request of a load or soak run, one fixed-width record per
+ * request. Read it back with {@link ResultsLogReader}.
+ * <p>
+ * Writers claim a slot with a single atomic increment and fill it with absolute puts, so any number
+ * of threads can append without locking. The file is mapped in segments of {@link #RECORDS_PER_SEGMENT}
+ * records; only mapping a new segment synchronises, once per million records.
+ * <p>
+ * File layout (big-endian):
+ * <pre>
+ * header, 64 bytes: magic "MGR1", version, record size, reserved, record count (0 until closed), created epoch millis
+ * record, 48 bytes: epoch millis, latency nanos, bytes, scenario id, status (-1 = transport error),
+ *                   Magpie error code (0 = none), flags, wire bytes
+ * </pre>
+ * "bytes" is the decoded body size and "wire bytes" what was read from the connection, so the two
+ * differ for compressed responses. Wire bytes took over the reserved tail of the record; logs written
+ * before that read them as 0, which {@link ResultsLogReader} treats as uncompressed.
+ * <p>
+ * Records are only guaranteed complete once {@link #close()} has returned: the puts are plain stores
+ * to the mapping, with no ordering promised to another reader. The timestamp is never 0, so a slot
+ * that was claimed but never written (e.g. the JVM died) reads as empty and is skipped when a crashed
+ * run is recovered. Records that were being written at the moment of the crash may be torn. Scenario
+ * names are kept in a sidecar file ({@code <log>.scenarios}, one name per line, line number = scenario id).
+ */
+public final class ResultsLog implements AutoCloseable {
+
+    static final int MAGIC = 0x4d475231; // "MGR1"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int RECORD_BYTES = 48;
+    static final int RECORDS_PER_SEGMENT = 1 << 20;
+    static final long SEGMENT_BYTES = (long) RECORDS_PER_SEGMENT * RECORD_BYTES;
+    static final int MAX_SEGMENTS = 4096;
+
+    static final int OFFSET_TIMESTAMP = 0;
+    static final int OFFSET_LATENCY = 8;
+    static final int OFFSET_BYTES = 16;
+    static final int OFFSET_SCENARIO = 24;
+    static final int OFFSET_STATUS = 28;
+    static final int OFFSET_ERROR_CODE = 32;
+    static final int OFFSET_FLAGS = 36;
+    static final int OFFSET_WIRE_BYTES = 40;
+
+    static final int FLAG_TRANSPORT_ERROR = 1;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final AtomicReferenceArray<MappedByteBuffer> segments = new AtomicReferenceArray<>(MAX_SEGMENTS);
+    private final AtomicLong cursor = new AtomicLong();
+    private final ConcurrentMap<String, Integer> scenarioIds = new ConcurrentHashMap<>();
+    private final List<String> scenarios = new CopyOnWriteArrayList<>();
+    private final Writer scenarioWriter;
+    private volatile boolean closed;
+
+    private ResultsLog(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, RECORD_BYTES);
+        header.putLong(16, 0);
+        header.putLong(24, System.currentTimeMillis());
+        this.scenarioWriter = Files.newBufferedWriter(scenariosFile(file), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a new log; fails if {@code file} already exists so runs never overwrite each other.
+     */
+    public static ResultsLog create(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        return new ResultsLog(file);
+    }
+
+    static Path scenariosFile(Path log) {
+        Path name = log.getFileName();
+        Path sidecar = Paths.get(name + ".scenarios");
+        return log.getParent() == null ? sidecar : log.getParent().resolve(sidecar);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Id of the scenario with the given name, registering it on first use.
+     */
+    public int scenarioId(String name) {
+        Integer id = scenarioIds.get(name);
+        return id != null ? id : register(name);
+    }
+
+    private synchronized int register(String name) {
+        Integer id = scenarioIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        try {
+            scenarioWriter.write(name.replace('\n', ' ') + "\n");
+            scenarioWriter.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write scenario names for " + file, e);
+        }
+        scenarios.add(name);
+        scenarioIds.put(name, scenarios.size() - 1);
+        return scenarios.size() - 1;
+    }
+
+    /**
+     * Appends a request completed just now.
+     */
+    public void append(int scenarioId, QuoteResult result) {
+        append(System.currentTimeMillis(), scenarioId, result.getStatusCode(), result.getErrorCode(),
+                result.getLatencyNanos(), result.getBytes(), result.getWireBytes(), result.isTransportError());
+    }
+
+    /**
+     * Appends a request whose response was not compressed, so its wire size equals {@code bytes}.
+     */
+    public void append(long epochMillis, int scenarioId, int status, int errorCode, long latencyNanos, long bytes,
+                       boolean transportError) {
+        append(epochMillis, scenarioId, status, errorCode, latencyNanos, bytes, bytes, transportError);
+    }
+
+    public void append(long epochMillis, int scenarioId, int status, int errorCode, long latencyNanos, long bytes,
+                       long wireBytes, boolean transportError) {
+        if (closed) {
+            throw new IllegalStateException("Results log is closed: " + file);
+        }
+        long slot = cursor.getAndIncrement();
+        MappedByteBuffer segment = segment((int) (slot / RECORDS_PER_SEGMENT));
+        int offset = (int) (slot % RECORDS_PER_SEGMENT) * RECORD_BYTES;
+        segment.putLong(offset + OFFSET_LATENCY, latencyNanos);
+        segment.putLong(offset + OFFSET_BYTES, bytes);
+        segment.putInt(offset + OFFSET_SCENARIO, scenarioId);
+        segment.putInt(offset + OFFSET_STATUS, status);
+        segment.putInt(offset + OFFSET_ERROR_CODE, errorCode);
+        segment.putInt(offset + OFFSET_FLAGS, transportError ? FLAG_TRANSPORT_ERROR : 0);
+        segment.putLong(offset + OFFSET_WIRE_BYTES, wireBytes);
+        // Non-zero marks the slot as used; completeness is only guaranteed after close()
+        segment.putLong(offset + OFFSET_TIMESTAMP, Math.max(1, epochMillis));
+    }
+
+    /**
+     * Number of records appended so far.
+     */
+    public long size() {
+        return cursor.get();
+    }
+
+    private MappedByteBuffer segment(int index) {
+        if (index >= MAX_SEGMENTS) {
+            throw new IllegalStateException("Results log is full: " + file);
+        }
+        MappedByteBuffer segment = segments.get(index);
+        return segment != null ? segment : mapSegment(index);
+    }
+
+    private synchronized MappedByteBuffer mapSegment(int index) {
+        MappedByteBuffer segment = segments.get(index);
+        if (segment == null) {
+            try {
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + index * SEGMENT_BYTES, SEGMENT_BYTES);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot map segment " + index + " of " + file, e);
+            }
+            segments.set(index, segment);
+        }
+        return segment;
+    }
+
+    /**
+     * Flushes the records, stores the final count and trims the unused tail of the last segment.
+     * Call only after every writer has finished.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long count = cursor.get();
+        for (int i = 0; i < MAX_SEGMENTS && segments.get(i) != null; i++) {
+            segments.get(i).force();
+        }
+        header.putLong(16, count);
+        header.force();
+        channel.truncate(HEADER_BYTES + count * RECORD_BYTES);
+        channel.close();
+        scenarioWriter.close();
+    }
+}
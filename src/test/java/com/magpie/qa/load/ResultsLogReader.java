@@ -0,0 +1,203 @@
+package com.magpie.qa.load;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.magpie.qa.load.ResultsLog.HEADER_BYTES;
+import static com.magpie.qa.load.ResultsLog.RECORDS_PER_SEGMENT;
+import static com.magpie.qa.load.ResultsLog.RECORD_BYTES;
+import static com.magpie.qa.load.ResultsLog.SEGMENT_BYTES;
+
+/**
+ * Sequential reader of a {@link ResultsLog}. Records are visited through one reused
+ * {@link ResultRecord} view straight over the mapped file, so scanning millions of records allocates
+ * nothing per record. Open a log after its writer has closed it. Logs that were never closed (a crashed
+ * run) are read up to the end of the file on a best-effort basis, skipping slots that were claimed but
+ * not written.
+ */
+public final class ResultsLogReader implements AutoCloseable {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long slots;
+    private final List<String> scenarios;
+
+    private ResultsLogReader(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        if (header.getInt(0) != ResultsLog.MAGIC) {
+            throw new IOException("Not a results log: " + file);
+        }
+        if (header.getInt(4) != ResultsLog.VERSION || header.getInt(8) != RECORD_BYTES) {
+            throw new IOException("Unsupported results log version " + header.getInt(4) + ": " + file);
+        }
+        long fileSlots = (channel.size() - HEADER_BYTES) / RECORD_BYTES;
+        long count = header.getLong(16);
+        this.slots = count > 0 ? Math.min(count, fileSlots) : fileSlots;
+
+        Path names = ResultsLog.scenariosFile(file);
+        this.scenarios = Files.exists(names)
+                ? Collections.unmodifiableList(Files.readAllLines(names, StandardCharsets.UTF_8))
+                : Collections.<String>emptyList();
+    }
+
+    public static ResultsLogReader open(Path file) throws IOException {
+        return new ResultsLogReader(file);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Scenario names indexed by scenario id.
+     */
+    public List<String> getScenarios() {
+        return scenarios;
+    }
+
+    public String scenarioName(int id) {
+        return id >= 0 && id < scenarios.size() ? scenarios.get(id) : "scenario-" + id;
+    }
+
+    /**
+     * Calls {@code visitor} for every written record in append order. The record view is only valid
+     * during the call.
+     */
+    public void forEach(Consumer<ResultRecord> visitor) throws IOException {
+        ResultRecord record = new ResultRecord();
+        for (long start = 0; start < slots; start += RECORDS_PER_SEGMENT) {
+            int records = (int) Math.min(RECORDS_PER_SEGMENT, slots - start);
+            long position = HEADER_BYTES + (start / RECORDS_PER_SEGMENT) * SEGMENT_BYTES;
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, (long) records * RECORD_BYTES);
+            for (int i = 0; i < records; i++) {
+                record.moveTo(segment, i * RECORD_BYTES);
+                if (record.getEpochMillis() != 0) {
+                    visitor.accept(record);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes every record as one CSV row.
+     */
+    public void exportCsv(Path target) throws IOException {
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        try (Writer out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            out.write("epochMillis,scenario,status,errorCode,latencyMicros,bytes,wireBytes,transportError\n");
+            StringBuilder line = new StringBuilder(128);
+            IOException[] failure = new IOException[1];
+            forEach(record -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                line.setLength(0);
+                line.append(record.getEpochMillis()).append(',')
+                        .append(csv(scenarioName(record.getScenarioId()))).append(',')
+                        .append(record.getStatus()).append(',')
+                        .append(record.getErrorCode()).append(',')
+                        .append(TimeUnit.NANOSECONDS.toMicros(record.getLatencyNanos())).append(',')
+                        .append(record.getBytes()).append(',')
+                        .append(record.getWireBytes()).append(',')
+                        .append(record.isTransportError()).append('\n');
+                try {
+                    out.append(line);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * View of one record of the mapped file.
+     */
+    public static final class ResultRecord {
+
+        private MappedByteBuffer buffer;
+        private int offset;
+
+        private ResultRecord() {
+        }
+
+        void moveTo(MappedByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        public long getEpochMillis() {
+            return buffer.getLong(offset + ResultsLog.OFFSET_TIMESTAMP);
+        }
+
+        public long getLatencyNanos() {
+            return buffer.getLong(offset + ResultsLog.OFFSET_LATENCY);
+        }
+
+        /**
+         * Decoded response body size.
+         */
+        public long getBytes() {
+            return buffer.getLong(offset + ResultsLog.OFFSET_BYTES);
+        }
+
+        /**
+         * Response body bytes read from the connection; equal to {@link #getBytes()} unless compressed.
+         */
+        public long getWireBytes() {
+            long wireBytes = buffer.getLong(offset + ResultsLog.OFFSET_WIRE_BYTES);
+            // 0 with a non-empty body only occurs in logs written before wire bytes were recorded
+            return wireBytes != 0 ? wireBytes : getBytes();
+        }
+
+        public int getScenarioId() {
+            return buffer.getInt(offset + ResultsLog.OFFSET_SCENARIO);
+        }
+
+        /**
+         * HTTP status, or -1 for a transport error.
+         */
+        public int getStatus() {
+            return buffer.getInt(offset + ResultsLog.OFFSET_STATUS);
+        }
+
+        /**
+         * Magpie error {@code code} from the response body, or 0.
+         */
+        public int getErrorCode() {
+            return buffer.getInt(offset + ResultsLog.OFFSET_ERROR_CODE);
+        }
+
+        public boolean isTransportError() {
+            return (buffer.getInt(offset + ResultsLog.OFFSET_FLAGS) & ResultsLog.FLAG_TRANSPORT_ERROR) != 0;
+        }
+    }
+}
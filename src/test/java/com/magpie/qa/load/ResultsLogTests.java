@@ -0,0 +1,152 @@
+package com.magpie.qa.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magpie.qa.support.LatencyHistogram;
+import com.magpie.qa.support.QuoteClient;
+import com.magpie.qa.support.QuoteRequest;
+import com.magpie.qa.support.QuoteResult;
+import com.magpie.qa.support.StubQuoteServer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ResultsLogTests {
+
+    private static final Path DIR = Paths.get("target", "results-selftest");
+
+    @Test(description = "SELF-RESULTS-01: Concurrent writers lose no records and percentiles match direct recording")
+    public void testConcurrentAppendAndAggregate() throws Exception {
+        Path log = freshLog("concurrent");
+        int threads = 8;
+        int perThread = 250_000;
+        LatencyHistogram expected = new LatencyHistogram();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (ResultsLog results = ResultsLog.create(log)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    int quote = results.scenarioId("quote");
+                    int quoteIn = results.scenarioId("quote-in");
+                    for (int i = 0; i < perThread; i++) {
+                        long latencyNanos = TimeUnit.MICROSECONDS.toNanos(1_000 + (i * 7919L + thread) % 400_000);
+                        expected.recordNanos(latencyNanos);
+                        boolean failed = i % 100 == 0;
+                        results.append(1_700_000_000_000L + i, i % 2 == 0 ? quote : quoteIn, failed ? 400 : 200,
+                                failed ? 2003 : 0, latencyNanos, 1_000, false);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            Assert.assertEquals(results.size(), (long) threads * perThread);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long start = System.nanoTime();
+        ResultsSummary summary = ResultsSummary.of(log);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.println(summary + "\nAggregated " + summary.getOverall().getRequests() + " records in " + elapsedMs + "ms");
+
+        Assert.assertEquals(Files.size(log), ResultsLog.HEADER_BYTES + (long) threads * perThread * ResultsLog.RECORD_BYTES);
+        Assert.assertEquals(summary.getOverall().getRequests(), (long) threads * perThread);
+        Assert.assertEquals(summary.getScenarios().get("quote").getRequests(), (long) threads * perThread / 2);
+        Assert.assertEquals((long) summary.getOverall().getErrorCodes().get(2003), (long) threads * perThread / 100);
+        for (double percentile : new double[] {50, 99, 99.9}) {
+            Assert.assertEquals(summary.getOverall().getLatency().getValueAtPercentile(percentile),
+                    expected.getValueAtPercentile(percentile), "p" + percentile);
+        }
+    }
+
+    @Test(description = "SELF-RESULTS-02: Records and summaries export to CSV and JSON")
+    public void testExport() throws Exception {
+        Path log = freshLog("export");
+        try (ResultsLog results = ResultsLog.create(log)) {
+            int scenario = results.scenarioId("quote, arbitrum");
+            results.append(1_700_000_000_000L, scenario, 200, 0, 5_000_000, 900, false);
+            results.append(1_700_000_001_000L, scenario, -1, 0, 30_000_000, 0, true);
+        }
+
+        try (ResultsLogReader reader = ResultsLogReader.open(log)) {
+            Path csv = Paths.get(log + ".csv");
+            reader.exportCsv(csv);
+            List<String> lines = Files.readAllLines(csv);
+            Assert.assertEquals(lines.size(), 3);
+            Assert.assertEquals(lines.get(2), "1700000001000,\"quote, arbitrum\",-1,0,30000,0,0,true");
+
+            Path json = Paths.get(log + ".summary.json");
+            ResultsSummary.of(reader).writeJson(json);
+            JsonNode root = new ObjectMapper().readTree(json.toFile());
+            Assert.assertEquals(root.get("overall").get("requests").asLong(), 2);
+            Assert.assertEquals(root.get("scenarios").get(0).get("transportErrors").asLong(), 1);
+            Assert.assertEquals(root.get("scenarios").get(0).get("statuses").get("200").asLong(), 1);
+        }
+    }
+
+    @Test(description = "SELF-RESULTS-03: A log that was never closed is still readable")
+    public void testUnclosedLogIsReadable() throws Exception {
+        Path log = freshLog("unclosed");
+        ResultsLog results = ResultsLog.create(log);
+        try {
+            int scenario = results.scenarioId("quote");
+            for (int i = 0; i < 1_000; i++) {
+                results.append(1_700_000_000_000L + i, scenario, 200, 0, 1_000_000, 100, false);
+            }
+            ResultsSummary summary = ResultsSummary.of(log);
+            Assert.assertEquals(summary.getOverall().getRequests(), 1_000);
+        } finally {
+            results.close();
+        }
+    }
+
+    @Test(description = "SELF-RESULTS-04: Compressed responses are inflated into the parser and both sizes are logged")
+    public void testCompressedPayloadSizes() throws Exception {
+        Path log = freshLog("compressed");
+        QuoteRequest request = QuoteRequest.quote().param("network", "arbitrum").param("sellAmount", "1000000").build();
+        try (StubQuoteServer stub = StubQuoteServer.start(); ResultsLog results = ResultsLog.create(log)) {
+            stub.setCompression(true);
+            QuoteResult compressed = new QuoteClient(stub.getBaseUri(), 1_000, 5_000, true).execute(request);
+            QuoteResult plain = new QuoteClient(stub.getBaseUri(), 1_000, 5_000, false).execute(request);
+
+            Assert.assertEquals(compressed.getStatusCode(), 200);
+            Assert.assertEquals(compressed.getContentEncoding(), "gzip");
+            Assert.assertEquals(compressed.getAmountOut(), "1000000");
+            Assert.assertTrue(compressed.getWireBytes() > 0 && compressed.getWireBytes() < compressed.getBytes(),
+                    compressed.getWireBytes() + " on the wire for " + compressed.getBytes() + " bytes");
+            Assert.assertNull(plain.getContentEncoding());
+            Assert.assertEquals(plain.getWireBytes(), plain.getBytes());
+            Assert.assertEquals(plain.getBytes(), compressed.getBytes());
+
+            results.append(results.scenarioId("gzip"), compressed);
+            results.append(results.scenarioId("identity"), plain);
+        }
+
+        ResultsSummary summary = ResultsSummary.of(log);
+        ResultsSummary.ScenarioStats gzip = summary.getScenarios().get("gzip");
+        Assert.assertTrue(gzip.getWireBytes() < gzip.getBytes());
+        Assert.assertTrue(gzip.getCompressionSavings() > 0);
+        Assert.assertEquals(summary.getScenarios().get("identity").getCompressionSavings(), 0.0);
+        Assert.assertEquals(summary.getOverall().getBytes(), 2 * summary.getScenarios().get("identity").getBytes());
+    }
+
+    private static Path freshLog(String name) throws Exception {
+        Files.createDirectories(DIR);
+        Path log = DIR.resolve(name + ".results");
+        Files.deleteIfExists(log);
+        Files.deleteIfExists(ResultsLog.scenariosFile(log));
+        return log;
+    }
+}
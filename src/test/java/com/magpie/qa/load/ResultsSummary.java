@@ -0,0 +1,254 @@
+package com.magpie.qa.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.magpie.qa.support.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-scenario aggregate of a {@link ResultsLog}: request count, status and Magpie error code
+ * breakdown, latency percentiles, decoded and on-the-wire bytes, and throughput. One pass over the log; memory does not grow
+ * with the number of records.
+ */
+public class ResultsSummary {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, ScenarioStats> scenarios = new TreeMap<>();
+    private final ScenarioStats overall = new ScenarioStats();
+
+    private ResultsSummary() {
+    }
+
+    public static ResultsSummary of(ResultsLogReader reader) throws IOException {
+        ResultsSummary summary = new ResultsSummary();
+        ScenarioStats[] byId = new ScenarioStats[reader.getScenarios().size()];
+        reader.forEach(record -> {
+            int id = record.getScenarioId();
+            ScenarioStats stats;
+            if (id >= 0 && id < byId.length) {
+                if (byId[id] == null) {
+                    byId[id] = summary.scenarios.computeIfAbsent(reader.scenarioName(id), k -> new ScenarioStats());
+                }
+                stats = byId[id];
+            } else {
+                stats = summary.scenarios.computeIfAbsent(reader.scenarioName(id), k -> new ScenarioStats());
+            }
+            stats.add(record);
+            summary.overall.add(record);
+        });
+        return summary;
+    }
+
+    public static ResultsSummary of(Path log) throws IOException {
+        try (ResultsLogReader reader = ResultsLogReader.open(log)) {
+            return of(reader);
+        }
+    }
+
+    /**
+     * Summarises a log for the reporting step: {@code ResultsSummary <log> [--records]} writes
+     * {@code <log>.summary.csv} and {@code <log>.summary.json}, and with {@code --records} also every
+     * record to {@code <log>.csv}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ResultsSummary <log> [--records]");
+            System.exit(2);
+        }
+        Path log = Paths.get(args[0]);
+        try (ResultsLogReader reader = ResultsLogReader.open(log)) {
+            ResultsSummary summary = of(reader);
+            summary.writeCsv(Paths.get(log + ".summary.csv"));
+            summary.writeJson(Paths.get(log + ".summary.json"));
+            if (args.length > 1 && "--records".equals(args[1])) {
+                reader.exportCsv(Paths.get(log + ".csv"));
+            }
+            System.out.println(summary);
+        }
+    }
+
+    public Map<String, ScenarioStats> getScenarios() {
+        return scenarios;
+    }
+
+    public ScenarioStats getOverall() {
+        return overall;
+    }
+
+    /**
+     * One row per scenario plus an "ALL" row; latencies in microseconds.
+     */
+    public void writeCsv(Path target) throws IOException {
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        try (Writer out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            out.write("scenario,requests,errors,transportErrors,requestsPerSecond,p50Micros,p90Micros,p99Micros,p999Micros,maxMicros,meanMicros,bytes,wireBytes\n");
+            for (Map.Entry<String, ScenarioStats> entry : scenarios.entrySet()) {
+                out.write(ResultsLogReader.csv(entry.getKey()) + "," + entry.getValue().toCsv() + "\n");
+            }
+            out.write("ALL," + overall.toCsv() + "\n");
+        }
+    }
+
+    public void writeJson(Path target) throws IOException {
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ObjectNode root = mapper.createObjectNode();
+        root.set("overall", overall.toJson(mapper));
+        ArrayNode list = root.putArray("scenarios");
+        for (Map.Entry<String, ScenarioStats> entry : scenarios.entrySet()) {
+            list.add(entry.getValue().toJson(mapper).put("scenario", entry.getKey()));
+        }
+        mapper.writeValue(target.toFile(), root);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d requests, %d errors, %.1f req/s, latency %s%n",
+                overall.getRequests(), overall.getErrors(), overall.getRequestsPerSecond(), overall.getLatency().summary()));
+        sb.append(String.format(Locale.ROOT, "  payload: %d bytes, %d on the wire (%.1f%% saved by compression)%n",
+                overall.getBytes(), overall.getWireBytes(), overall.getCompressionSavings() * 100));
+        for (Map.Entry<String, ScenarioStats> entry : scenarios.entrySet()) {
+            ScenarioStats stats = entry.getValue();
+            sb.append(String.format("  %s: %d requests, %d errors, statuses %s, error codes %s, latency %s%n",
+                    entry.getKey(), stats.getRequests(), stats.getErrors(), stats.getStatuses(), stats.getErrorCodes(),
+                    stats.getLatency().summary()));
+        }
+        return sb.toString().trim();
+    }
+
+    public static final class ScenarioStats {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Map<Integer, Long> statuses = new TreeMap<>();
+        private final Map<Integer, Long> errorCodes = new TreeMap<>();
+        private long requests;
+        private long errors;
+        private long transportErrors;
+        private long bytes;
+        private long wireBytes;
+        private long firstMillis = Long.MAX_VALUE;
+        private long lastMillis = Long.MIN_VALUE;
+
+        private void add(ResultsLogReader.ResultRecord record) {
+            requests++;
+            latency.recordNanos(record.getLatencyNanos());
+            statuses.merge(record.getStatus(), 1L, Long::sum);
+            if (record.getStatus() != 200) {
+                errors++;
+            }
+            if (record.isTransportError()) {
+                transportErrors++;
+            }
+            if (record.getErrorCode() != 0) {
+                errorCodes.merge(record.getErrorCode(), 1L, Long::sum);
+            }
+            bytes += record.getBytes();
+            wireBytes += record.getWireBytes();
+            firstMillis = Math.min(firstMillis, record.getEpochMillis());
+            lastMillis = Math.max(lastMillis, record.getEpochMillis());
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        /**
+         * Requests that did not return 200, including transport errors.
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getTransportErrors() {
+            return transportErrors;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getWireBytes() {
+            return wireBytes;
+        }
+
+        /**
+         * Share of the decoded payload that compression kept off the wire, from 0 (none) to 1.
+         */
+        public double getCompressionSavings() {
+            return bytes == 0 ? 0 : 1 - (double) wireBytes / bytes;
+        }
+
+        public Map<Integer, Long> getStatuses() {
+            return statuses;
+        }
+
+        public Map<Integer, Long> getErrorCodes() {
+            return errorCodes;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * Completion rate between the first and the last record of the scenario.
+         */
+        public double getRequestsPerSecond() {
+            long spanMillis = lastMillis - firstMillis;
+            return requests < 2 || spanMillis <= 0 ? 0 : (requests - 1) * 1000.0 / spanMillis;
+        }
+
+        private String toCsv() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(requests).append(',').append(errors).append(',').append(transportErrors).append(',')
+                    .append(String.format(Locale.ROOT, "%.2f", getRequestsPerSecond()));
+            for (double percentile : PERCENTILES) {
+                sb.append(',').append(latency.getValueAtPercentile(percentile));
+            }
+            sb.append(',').append(latency.getMax()).append(',').append(Math.round(latency.getMean())).append(',').append(bytes)
+                    .append(',').append(wireBytes);
+            return sb.toString();
+        }
+
+        private ObjectNode toJson(ObjectMapper mapper) {
+            ObjectNode node = mapper.createObjectNode();
+            node.put("requests", requests);
+            node.put("errors", errors);
+            node.put("transportErrors", transportErrors);
+            node.put("requestsPerSecond", getRequestsPerSecond());
+            node.put("bytes", bytes);
+            node.put("wireBytes", wireBytes);
+            node.put("compressionSavings", getCompressionSavings());
+            ObjectNode latencyNode = node.putObject("latencyMicros");
+            latencyNode.put("min", latency.getMin());
+            latencyNode.put("mean", latency.getMean());
+            latencyNode.put("p50", latency.getValueAtPercentile(50));
+            latencyNode.put("p90", latency.getValueAtPercentile(90));
+            latencyNode.put("p99", latency.getValueAtPercentile(99));
+            latencyNode.put("p999", latency.getValueAtPercentile(99.9));
+            latencyNode.put("max", latency.getMax());
+            ObjectNode statusNode = node.putObject("statuses");
+            statuses.forEach((status, count) -> statusNode.put(String.valueOf(status), count));
+            ObjectNode codeNode = node.putObject("errorCodes");
+            errorCodes.forEach((code, count) -> codeNode.put(String.valueOf(code), count));
+            return node;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.magpie.qa.load;
+
+import com.magpie.qa.support.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Cumulative counters of one worker: requests sent, failed requests (transport errors and non-200
+ * statuses), late dispatches and per-endpoint response time measured from the scheduled send time.
+ */
+public final class WorkerSnapshot {
+
+    private final long sent;
+    private final long errors;
+    private final long lateDispatches;
+    private final Map<String, LatencyHistogram> responseTimes = new TreeMap<>();
+
+    WorkerSnapshot(long sent, long errors, long lateDispatches) {
+        this.sent = sent;
+        this.errors = errors;
+        this.lateDispatches = lateDispatches;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getLateDispatches() {
+        return lateDispatches;
+    }
+
+    public Map<String, LatencyHistogram> getResponseTimes() {
+        return responseTimes;
+    }
+}
@@ -0,0 +1,230 @@
+package com.magpie.qa.scenario;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+/**
+ * Greedy (AETG-style) generator of t-wise covering arrays.
+ * <p>
+ * Factors are identified by position and their values by index, so a generated row is an
+ * {@code int[]} with one value index per factor. Every allowed combination of values for every set of
+ * {@code strength} factors appears in at least one row. The {@code allowed} predicate receives partial
+ * rows (unassigned factors are -1) and must return false as soon as the assigned values cannot
+ * appear together; tuples that are not allowed on their own are not required to be covered.
+ * <p>
+ * Output is deterministic for a given seed.
+ */
+public final class CoveringArrayGenerator {
+
+    private static final int CANDIDATES_PER_ROW = 25;
+
+    private final int[] levels;
+    private final Predicate<int[]> allowed;
+    private final Random random;
+    private final List<int[]> combinations = new ArrayList<>();
+    private final List<BitSet> uncovered = new ArrayList<>();
+    private final List<List<Integer>> combinationsByFactor = new ArrayList<>();
+    private long uncoveredCount;
+
+    private CoveringArrayGenerator(int[] levels, int strength, Predicate<int[]> allowed, long seed) {
+        this.levels = levels.clone();
+        this.allowed = allowed;
+        this.random = new Random(seed);
+        for (int i = 0; i < levels.length; i++) {
+            combinationsByFactor.add(new ArrayList<>());
+        }
+        enumerate(new int[strength], 0, 0);
+    }
+
+    /**
+     * @param levels   number of values of each factor
+     * @param strength t, the size of the factor combinations to cover (2 = pairwise)
+     * @param allowed  constraint on (partial) rows; use {@code row -> true} for none
+     * @param seed     random seed for tie-breaking
+     */
+    public static List<int[]> generate(int[] levels, int strength, Predicate<int[]> allowed, long seed) {
+        if (strength < 1) {
+            throw new IllegalArgumentException("strength must be >= 1: " + strength);
+        }
+        for (int level : levels) {
+            if (level < 1) {
+                throw new IllegalArgumentException("Every factor needs at least one value: " + Arrays.toString(levels));
+            }
+        }
+        return new CoveringArrayGenerator(levels, Math.min(strength, levels.length), allowed, seed).generate();
+    }
+
+    private List<int[]> generate() {
+        List<int[]> rows = new ArrayList<>();
+        while (uncoveredCount > 0) {
+            int[] best = null;
+            int bestScore = -1;
+            for (int c = 0; c < CANDIDATES_PER_ROW; c++) {
+                int[] candidate = candidate();
+                int score = score(candidate);
+                if (score > bestScore) {
+                    best = candidate;
+                    bestScore = score;
+                }
+            }
+            cover(best);
+            rows.add(best);
+        }
+        return rows;
+    }
+
+    /**
+     * Seeds a row with a random uncovered tuple, then fills the remaining factors in random order,
+     * each with the allowed value that covers the most new tuples.
+     */
+    private int[] candidate() {
+        int[] row = new int[levels.length];
+        Arrays.fill(row, -1);
+
+        int combination = randomUncoveredCombination();
+        int[] factors = combinations.get(combination);
+        BitSet bits = uncovered.get(combination);
+        int tuple = bits.nextSetBit(random.nextInt(size(factors)));
+        if (tuple < 0) {
+            tuple = bits.nextSetBit(0);
+        }
+        decode(factors, tuple, row);
+
+        List<Integer> order = new ArrayList<>();
+        for (int f = 0; f < levels.length; f++) {
+            if (row[f] < 0) {
+                order.add(f);
+            }
+        }
+        Collections.shuffle(order, random);
+        for (int factor : order) {
+            int bestValue = -1;
+            int bestGain = -1;
+            int offset = random.nextInt(levels[factor]);
+            for (int i = 0; i < levels[factor]; i++) {
+                int value = (offset + i) % levels[factor];
+                row[factor] = value;
+                if (!allowed.test(row)) {
+                    continue;
+                }
+                int gain = gain(row, factor);
+                if (gain > bestGain) {
+                    bestGain = gain;
+                    bestValue = value;
+                }
+            }
+            if (bestValue < 0) {
+                throw new IllegalStateException("No allowed value for factor " + factor + " in row " + Arrays.toString(row));
+            }
+            row[factor] = bestValue;
+        }
+        return row;
+    }
+
+    /**
+     * Uncovered tuples completed by assigning {@code factor}, counting only fully assigned combinations.
+     */
+    private int gain(int[] row, int factor) {
+        int gain = 0;
+        for (int combination : combinationsByFactor.get(factor)) {
+            int index = index(combinations.get(combination), row);
+            if (index >= 0 && uncovered.get(combination).get(index)) {
+                gain++;
+            }
+        }
+        return gain;
+    }
+
+    private int score(int[] row) {
+        int score = 0;
+        for (int c = 0; c < combinations.size(); c++) {
+            if (uncovered.get(c).get(index(combinations.get(c), row))) {
+                score++;
+            }
+        }
+        return score;
+    }
+
+    private void cover(int[] row) {
+        for (int c = 0; c < combinations.size(); c++) {
+            int index = index(combinations.get(c), row);
+            if (uncovered.get(c).get(index)) {
+                uncovered.get(c).clear(index);
+                uncoveredCount--;
+            }
+        }
+    }
+
+    private int randomUncoveredCombination() {
+        int start = random.nextInt(combinations.size());
+        for (int i = 0; i < combinations.size(); i++) {
+            int c = (start + i) % combinations.size();
+            if (!uncovered.get(c).isEmpty()) {
+                return c;
+            }
+        }
+        throw new IllegalStateException("Everything is covered");
+    }
+
+    private void enumerate(int[] factors, int depth, int from) {
+        if (depth == factors.length) {
+            int[] combination = factors.clone();
+            BitSet bits = new BitSet(size(combination));
+            int[] row = new int[levels.length];
+            for (int tuple = 0; tuple < size(combination); tuple++) {
+                Arrays.fill(row, -1);
+                decode(combination, tuple, row);
+                if (allowed.test(row)) {
+                    bits.set(tuple);
+                }
+            }
+            int index = combinations.size();
+            combinations.add(combination);
+            uncovered.add(bits);
+            uncoveredCount += bits.cardinality();
+            for (int factor : combination) {
+                combinationsByFactor.get(factor).add(index);
+            }
+            return;
+        }
+        for (int f = from; f < levels.length; f++) {
+            factors[depth] = f;
+            enumerate(factors, depth + 1, f + 1);
+        }
+    }
+
+    private int size(int[] factors) {
+        int size = 1;
+        for (int factor : factors) {
+            size *= levels[factor];
+        }
+        return size;
+    }
+
+    /**
+     * Mixed-radix index of the row's values for the given factors, or -1 if any is unassigned.
+     */
+    private int index(int[] factors, int[] row) {
+        int index = 0;
+        for (int factor : factors) {
+            if (row[factor] < 0) {
+                return -1;
+            }
+            index = index * levels[factor] + row[factor];
+        }
+        return index;
+    }
+
+    private void decode(int[] factors, int index, int[] row) {
+        for (int i = factors.length - 1; i >= 0; i--) {
+            int factor = factors[i];
+            row[factor] = index % levels[factor];
+            index /= levels[factor];
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.magpie.qa.scenario;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class CoveringArrayGeneratorTests {
+
+    @Test(description = "SELF-SCENARIO-01: Every pair and triple of levels is covered by far fewer rows than the cartesian product")
+    public void testCoversAllTuples() {
+        int[] levels = {2, 3, 4, 6, 5, 5};
+        for (int strength = 2; strength <= 3; strength++) {
+            List<int[]> rows = CoveringArrayGenerator.generate(levels, strength, row -> true, 7L);
+
+            assertCovered(levels, strength, rows);
+            Assert.assertTrue(rows.size() < 3600 / 10, strength + "-wise needed " + rows.size() + " rows");
+        }
+    }
+
+    @Test(description = "SELF-SCENARIO-02: Generated scenarios never combine two invalid levels and cover every invalid one")
+    public void testConstraintIsRespected() {
+        QuoteScenarioSpace space = QuoteScenarios.arbitrumWethToUsdc();
+        List<QuoteScenario> scenarios = space.generate(2, 1L);
+
+        Map<String, Set<String>> invalidSeen = new HashMap<>();
+        for (QuoteScenario scenario : scenarios) {
+            int invalid = 0;
+            for (Factor factor : space.getFactors()) {
+                String label = scenario.getLevels().get(factor.getName());
+                for (Level level : factor.getLevels()) {
+                    if (level.getLabel().equals(label) && level.isInvalid()) {
+                        invalid++;
+                        invalidSeen.computeIfAbsent(factor.getName(), k -> new HashSet<>()).add(label);
+                    }
+                }
+            }
+            Assert.assertTrue(invalid <= 1, "Two invalid levels in " + scenario);
+            Assert.assertEquals(scenario.getExpected() == ExpectedOutcome.QUOTE, invalid == 0, scenario.toString());
+        }
+        for (Factor factor : space.getFactors()) {
+            for (Level level : factor.getLevels()) {
+                if (level.isInvalid()) {
+                    Assert.assertTrue(invalidSeen.getOrDefault(factor.getName(), new HashSet<>()).contains(level.getLabel()),
+                            "Invalid level never generated: " + factor.getName() + "=" + level.getLabel());
+                }
+            }
+        }
+        Assert.assertTrue(scenarios.size() < space.exhaustiveSize() / 10,
+                scenarios.size() + " scenarios out of " + space.exhaustiveSize());
+    }
+
+    @Test(description = "SELF-SCENARIO-03: Generation is deterministic for a given seed")
+    public void testDeterministicForSeed() {
+        Assert.assertEquals(QuoteScenarios.arbitrumWethToUsdc().generate(2, 99L).toString(),
+                QuoteScenarios.arbitrumWethToUsdc().generate(2, 99L).toString());
+    }
+
+    private static void assertCovered(int[] levels, int strength, List<int[]> rows) {
+        Set<String> covered = new HashSet<>();
+        for (int[] row : rows) {
+            addTuples(row, strength, 0, "", covered);
+        }
+        int expected = countTuples(levels, strength, 0);
+        Assert.assertEquals(covered.size(), expected, strength + "-wise tuples covered");
+    }
+
+    private static void addTuples(int[] row, int remaining, int from, String prefix, Set<String> out) {
+        if (remaining == 0) {
+            out.add(prefix);
+            return;
+        }
+        for (int f = from; f < row.length; f++) {
+            addTuples(row, remaining - 1, f + 1, prefix + f + "=" + row[f] + ";", out);
+        }
+    }
+
+    private static int countTuples(int[] levels, int remaining, int from) {
+        if (remaining == 0) {
+            return 1;
+        }
+        int count = 0;
+        for (int f = from; f < levels.length; f++) {
+            count += levels[f] * countTuples(levels, remaining - 1, f + 1);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,22 @@
+package com.magpie.qa.scenario;
+
+/**
+ * Outcome class a generated scenario is expected to produce.
+ */
+public enum ExpectedOutcome {
+
+    /** 200 with a non-null amountOut. */
+    QUOTE(200),
+    /** 400, the request is rejected as invalid. */
+    BAD_REQUEST(400);
+
+    private final int statusCode;
+
+    ExpectedOutcome(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
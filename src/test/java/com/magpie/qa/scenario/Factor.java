@@ -0,0 +1,30 @@
+package com.magpie.qa.scenario;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A request dimension to vary, e.g. "slippage", with the {@link Level}s it can take.
+ */
+public final class Factor {
+
+    private final String name;
+    private final List<Level> levels;
+
+    Factor(String name, Level... levels) {
+        if (levels.length == 0) {
+            throw new IllegalArgumentException("Factor " + name + " needs at least one level");
+        }
+        this.name = name;
+        this.levels = Collections.unmodifiableList(Arrays.asList(levels));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Level> getLevels() {
+        return levels;
+    }
+}
@@ -0,0 +1,68 @@
+package com.magpie.qa.scenario;
+
+import com.magpie.qa.support.QuoteRequest;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * One value of a {@link Factor}: how it changes the request and which outcome it forces. Valid levels
+ * expect {@link ExpectedOutcome#QUOTE}; a level that makes the request invalid declares its error
+ * class with {@link #expect(ExpectedOutcome)}.
+ */
+public final class Level {
+
+    private final String label;
+    private final Consumer<QuoteRequest.Builder> apply;
+    private final ExpectedOutcome outcome;
+
+    private Level(String label, Consumer<QuoteRequest.Builder> apply, ExpectedOutcome outcome) {
+        this.label = label;
+        this.apply = apply;
+        this.outcome = outcome;
+    }
+
+    /**
+     * The parameter is left out of the request.
+     */
+    public static Level omitted() {
+        return new Level("omitted", builder -> {
+        }, ExpectedOutcome.QUOTE);
+    }
+
+    /**
+     * Sets {@code param} to the given value, or to several values for a multi-valued parameter.
+     */
+    public static Level value(String param, Object... values) {
+        String label = Arrays.stream(values).map(String::valueOf).collect(Collectors.joining(","));
+        return new Level(label, builder -> builder.param(param, values), ExpectedOutcome.QUOTE);
+    }
+
+    /**
+     * Arbitrary change to the request, for levels that touch several parameters.
+     */
+    public static Level of(String label, Consumer<QuoteRequest.Builder> apply) {
+        return new Level(label, apply, ExpectedOutcome.QUOTE);
+    }
+
+    public Level expect(ExpectedOutcome expected) {
+        return new Level(label, apply, expected);
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public ExpectedOutcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isInvalid() {
+        return outcome != ExpectedOutcome.QUOTE;
+    }
+
+    void applyTo(QuoteRequest.Builder builder) {
+        apply.accept(builder);
+    }
+}
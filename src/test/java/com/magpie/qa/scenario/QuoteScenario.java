@@ -0,0 +1,57 @@
+package com.magpie.qa.scenario;
+
+import com.magpie.qa.support.QuoteRequest;
+import com.magpie.qa.support.ScenarioFingerprint;
+
+import java.util.Map;
+
+/**
+ * A generated request together with the outcome class it is expected to produce.
+ */
+public final class QuoteScenario implements ScenarioFingerprint.Input {
+
+    private final String id;
+    private final Map<String, String> levels;
+    private final QuoteRequest request;
+    private final ExpectedOutcome expected;
+
+    QuoteScenario(String id, Map<String, String> levels, QuoteRequest request, ExpectedOutcome expected) {
+        this.id = id;
+        this.levels = levels;
+        this.request = request;
+        this.expected = expected;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Chosen level label per factor name, in factor order.
+     */
+    public Map<String, String> getLevels() {
+        return levels;
+    }
+
+    public QuoteRequest getRequest() {
+        return request;
+    }
+
+    public ExpectedOutcome getExpected() {
+        return expected;
+    }
+
+    /**
+     * The request actually sent and the expected outcome; the id and level labels alone stay the
+     * same when a level's values change.
+     */
+    @Override
+    public String fingerprintInput() {
+        return request.toCanonicalString() + " -> " + expected;
+    }
+
+    @Override
+    public String toString() {
+        return id + " " + levels + " -> " + expected;
+    }
+}
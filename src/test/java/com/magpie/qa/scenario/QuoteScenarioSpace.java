@@ -0,0 +1,98 @@
+package com.magpie.qa.scenario;
+
+import com.magpie.qa.support.QuoteRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Declarative model of a quote parameter space: a base request plus the {@link Factor}s to vary.
+ * <pre>
+ * QuoteScenarioSpace.on("ARB-WETH-USDC", () -&gt; QuoteRequest.quote().param("network", "arbitrum")...)
+ *         .factor("gasless", Level.value("gasless", false), Level.value("gasless", true))
+ *         .factor("slippage", Level.value("slippage", 0.5), Level.value("slippage", -0.5).expect(BAD_REQUEST))
+ *         .generate(2, 1L);
+ * </pre>
+ * Generation covers every t-wise combination of levels. Invalid levels are only combined with valid
+ * ones: with two invalid values in one request the API reports just one of them, so the second
+ * would never actually be tested.
+ */
+public final class QuoteScenarioSpace {
+
+    private final String name;
+    private final Supplier<QuoteRequest.Builder> base;
+    private final List<Factor> factors = new ArrayList<>();
+
+    private QuoteScenarioSpace(String name, Supplier<QuoteRequest.Builder> base) {
+        this.name = name;
+        this.base = base;
+    }
+
+    public static QuoteScenarioSpace on(String name, Supplier<QuoteRequest.Builder> base) {
+        return new QuoteScenarioSpace(name, base);
+    }
+
+    public QuoteScenarioSpace factor(String factorName, Level... levels) {
+        factors.add(new Factor(factorName, levels));
+        return this;
+    }
+
+    public List<Factor> getFactors() {
+        return Collections.unmodifiableList(factors);
+    }
+
+    /**
+     * Number of scenarios an exhaustive cartesian product would need.
+     */
+    public long exhaustiveSize() {
+        long size = 1;
+        for (Factor factor : factors) {
+            size *= factor.getLevels().size();
+        }
+        return size;
+    }
+
+    /**
+     * Generates scenarios covering every {@code strength}-wise combination of levels.
+     */
+    public List<QuoteScenario> generate(int strength, long seed) {
+        int[] levels = new int[factors.size()];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = factors.get(i).getLevels().size();
+        }
+        List<int[]> rows = CoveringArrayGenerator.generate(levels, strength, row -> invalidCount(row) <= 1, seed);
+
+        List<QuoteScenario> scenarios = new ArrayList<>();
+        for (int r = 0; r < rows.size(); r++) {
+            int[] row = rows.get(r);
+            QuoteRequest.Builder builder = base.get();
+            Map<String, String> labels = new LinkedHashMap<>();
+            ExpectedOutcome expected = ExpectedOutcome.QUOTE;
+            for (int f = 0; f < row.length; f++) {
+                Level level = factors.get(f).getLevels().get(row[f]);
+                level.applyTo(builder);
+                labels.put(factors.get(f).getName(), level.getLabel());
+                if (level.isInvalid()) {
+                    expected = level.getOutcome();
+                }
+            }
+            String id = String.format("%s-T%d-%03d", name, strength, r + 1);
+            scenarios.add(new QuoteScenario(id, Collections.unmodifiableMap(labels), builder.build(), expected));
+        }
+        return scenarios;
+    }
+
+    private int invalidCount(int[] row) {
+        int invalid = 0;
+        for (int f = 0; f < row.length; f++) {
+            if (row[f] >= 0 && factors.get(f).getLevels().get(row[f]).isInvalid()) {
+                invalid++;
+            }
+        }
+        return invalid;
+    }
+}
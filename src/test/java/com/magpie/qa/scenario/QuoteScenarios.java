@@ -0,0 +1,62 @@
+package com.magpie.qa.scenario;
+
+import com.magpie.qa.support.QuoteRequest;
+
+import static com.magpie.qa.scenario.ExpectedOutcome.BAD_REQUEST;
+
+/**
+ * Catalog of parameter spaces. Expected outcomes follow the API behaviour pinned down by the
+ * hand-written cases in QuoteAPITests (QUOTE-POS-*, QUOTE-NEG-*, QUOTE-EDGE-*).
+ */
+public final class QuoteScenarios {
+
+    private static final String ARBITRUM_NETWORK = "arbitrum";
+    private static final String ARBITRUM_WETH_ADDRESS = "0x82af49447d8a07e3bd95bd0d56f35241523fbab1";
+    private static final String ARBITRUM_USDC_ADDRESS = "0xaf88d065e77c8cc2239327c5edb3a432268e5831";
+    private static final String DUMMY_WALLET_ADDRESS = "0xd8dA6BF26964aF9D7eEd9e03E53415D37aA96045";
+
+    private QuoteScenarios() {
+    }
+
+    /**
+     * Optional features of an Arbitrum WETH -> USDC quote: gasless, RFQ, affiliate fields,
+     * liquidity sources, slippage and sell amount.
+     */
+    public static QuoteScenarioSpace arbitrumWethToUsdc() {
+        return QuoteScenarioSpace.on("ARB-WETH-USDC", () -> QuoteRequest.quote()
+                        .param("network", ARBITRUM_NETWORK)
+                        .param("fromTokenAddress", ARBITRUM_WETH_ADDRESS)
+                        .param("toTokenAddress", ARBITRUM_USDC_ADDRESS))
+                .factor("gasless",
+                        Level.value("gasless", false),
+                        Level.value("gasless", true))
+                .factor("enableRFQ",
+                        Level.omitted(),
+                        Level.value("enableRFQ", false),
+                        Level.value("enableRFQ", true))
+                .factor("affiliate",
+                        Level.omitted(),
+                        Level.of("address+fee", b -> b.param("affiliateAddress", DUMMY_WALLET_ADDRESS).param("affiliateFeeInPercentage", 0.01)),
+                        Level.of("fee-only", b -> b.param("affiliateFeeInPercentage", 0.01)).expect(BAD_REQUEST),      // QUOTE-NEG-17
+                        Level.of("address-only", b -> b.param("affiliateAddress", DUMMY_WALLET_ADDRESS)).expect(BAD_REQUEST)) // QUOTE-NEG-18
+                .factor("liquiditySources",
+                        Level.omitted(),
+                        Level.value("liquiditySources", "uniswap-v3"),
+                        Level.value("liquiditySources", "uniswap-v3", "sushi"),
+                        Level.value("liquiditySources", ""),                                            // QUOTE-EDGE-12
+                        Level.value("liquiditySources", "invalidsource").expect(BAD_REQUEST),           // QUOTE-EDGE-05
+                        Level.value("liquiditySources", "sushi", "sushi").expect(BAD_REQUEST))          // QUOTE-EDGE-11
+                .factor("slippage",
+                        Level.value("slippage", 0.5),
+                        Level.value("slippage", 0),                                                     // QUOTE-EDGE-02
+                        Level.value("slippage", -0.5).expect(BAD_REQUEST),                              // QUOTE-NEG-10
+                        Level.value("slippage", 100).expect(BAD_REQUEST),                               // QUOTE-EDGE-07
+                        Level.value("slippage", 101).expect(BAD_REQUEST))                               // QUOTE-NEG-19
+                .factor("sellAmount",
+                        Level.value("sellAmount", "1000000000000000000"),                               // 1 WETH
+                        Level.value("sellAmount", "100000000000000000"),                                // 0.1 WETH
+                        Level.value("sellAmount", "0").expect(BAD_REQUEST),                             // QUOTE-EDGE-01
+                        Level.value("sellAmount", "1").expect(BAD_REQUEST),                             // QUOTE-EDGE-06
+                        Level.value("sellAmount", "100000000000000000000000000").expect(BAD_REQUEST));  // QUOTE-EDGE-03
+    }
+}
@@ -0,0 +1,18 @@
+package com.magpie.qa.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lets a test scenario share identical in-flight GET requests with other scenarios running at the
+ * same time, see {@link SingleFlightFilter}. Leave it off scenarios that must observe distinct quotes.
+ * <p>
+ * Only concurrent invocations can share a request, so it has no effect in the default suite, where
+ * methods run one at a time; the {@code parallel} profile runs them concurrently.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Coalesce {
+}
@@ -0,0 +1,95 @@
+package com.magpie.qa.support;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time by which a scenario, or one attempt within it, must finish.
+ * <p>
+ * A scenario starts with one overall budget and hands out {@link #slice(int) slices} of what is left
+ * to its retries or probes, so an early attempt that fails fast leaves more time for later ones and
+ * the scenario as a whole can never overrun. The deadline that applies to the current thread is set
+ * with {@link #enter()} and picked up by {@link DeadlineHttpClientFactory} for every RestAssured request.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long budgetMillis;
+    private final long expiresAtNanos;
+
+    private Deadline(long budgetMillis) {
+        this.budgetMillis = budgetMillis;
+        this.expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    public static Deadline afterMillis(long budgetMillis) {
+        return new Deadline(Math.max(0, budgetMillis));
+    }
+
+    /**
+     * The deadline entered on this thread, or null if none is active.
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    public long remainingMillis() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * A deadline for the next of {@code parts} remaining attempts: an equal share of the time left.
+     */
+    public Deadline slice(int parts) {
+        return afterMillis(parts <= 1 ? remainingMillis() : remainingMillis() / parts);
+    }
+
+    /**
+     * Throws {@link DeadlineExceededException} if the deadline has passed.
+     */
+    public void check(String operation) {
+        if (isExpired()) {
+            throw new DeadlineExceededException(operation + " exceeded its " + budgetMillis + "ms budget");
+        }
+    }
+
+    /**
+     * Makes this the current deadline of the calling thread until the returned scope is closed.
+     */
+    public Scope enter() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return new Scope(previous);
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{budget=" + budgetMillis + "ms, remaining=" + remainingMillis() + "ms}";
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Deadline previous;
+
+        private Scope(Deadline previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
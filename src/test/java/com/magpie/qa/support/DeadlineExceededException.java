@@ -0,0 +1,17 @@
+package com.magpie.qa.support;
+
+/**
+ * Thrown when a scenario or one of its attempts runs out of its time budget.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,125 @@
+package com.magpie.qa.support;
+
+import io.restassured.config.HttpClientConfig;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.EofSensorInputStream;
+import org.apache.http.conn.EofSensorWatcher;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.params.HttpConnectionParams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RestAssured client factory that enforces the calling thread's {@link Deadline}.
+ * <p>
+ * RestAssured creates one client per request on the calling thread, so each client gets connect and
+ * socket timeouts derived from the time left. A socket timeout only bounds the gap between two reads,
+ * so a watchdog additionally shuts the client's connections down when the deadline passes; that
+ * also stops slow-drip responses. The watchdog is cancelled as soon as the response body has been
+ * read or closed. Implicit client retries are disabled: retries are explicit ({@link Retry}) so that
+ * they are paid for out of the same budget.
+ * <p>
+ * Without an active deadline requests still get finite default timeouts.
+ */
+public class DeadlineHttpClientFactory implements HttpClientConfig.HttpClientFactory {
+
+    public static final int DEFAULT_CONNECT_TIMEOUT_MS = Integer.getInteger("scenario.connectTimeoutMillis", 5_000);
+    public static final int DEFAULT_SOCKET_TIMEOUT_MS = 30_000;
+
+    private static final ScheduledThreadPoolExecutor WATCHDOG = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "deadline-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        // Cancelled watchdogs must not keep their client reachable until the deadline would have passed
+        WATCHDOG.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * RestAssured 5 only accepts an {@code AbstractHttpClient}, and every implementation of it, like its
+     * params and connection manager API, is deprecated in HttpClient 4.3+. The builder-based clients
+     * cannot be plugged in, so this is the one place that uses the deprecated API.
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public HttpClient createHttpClient() {
+        DefaultHttpClient client = new DefaultHttpClient();
+        client.setHttpRequestRetryHandler(new DefaultHttpRequestRetryHandler(0, false));
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            HttpConnectionParams.setConnectionTimeout(client.getParams(), DEFAULT_CONNECT_TIMEOUT_MS);
+            HttpConnectionParams.setSoTimeout(client.getParams(), DEFAULT_SOCKET_TIMEOUT_MS);
+            return client;
+        }
+
+        deadline.check("Request");
+        int remaining = (int) Math.min(Integer.MAX_VALUE, Math.max(1, deadline.remainingMillis()));
+        HttpConnectionParams.setConnectionTimeout(client.getParams(), Math.min(remaining, DEFAULT_CONNECT_TIMEOUT_MS));
+        HttpConnectionParams.setSoTimeout(client.getParams(), remaining);
+
+        ClientConnectionManager connectionManager = client.getConnectionManager();
+        ScheduledFuture<?> watchdog = WATCHDOG.schedule(connectionManager::shutdown, remaining, TimeUnit.MILLISECONDS);
+        client.addResponseInterceptor((response, context) -> {
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                watchdog.cancel(false);
+            } else {
+                response.setEntity(new WatchedEntity(entity, watchdog));
+            }
+        });
+        return client;
+    }
+
+    /**
+     * Number of watchdogs still waiting for their deadline.
+     */
+    public static int pendingWatchdogs() {
+        return WATCHDOG.getQueue().size();
+    }
+
+    /**
+     * Cancels the watchdog once the body has been read to the end, closed or aborted.
+     */
+    private static final class WatchedEntity extends HttpEntityWrapper {
+
+        private final ScheduledFuture<?> watchdog;
+
+        private WatchedEntity(HttpEntity entity, ScheduledFuture<?> watchdog) {
+            super(entity);
+            this.watchdog = watchdog;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new EofSensorInputStream(super.getContent(), new EofSensorWatcher() {
+                @Override
+                public boolean eofDetected(InputStream wrapped) {
+                    watchdog.cancel(false);
+                    return true;
+                }
+
+                @Override
+                public boolean streamClosed(InputStream wrapped) {
+                    watchdog.cancel(false);
+                    return true;
+                }
+
+                @Override
+                public boolean streamAbort(InputStream wrapped) {
+                    watchdog.cancel(false);
+                    return true;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.magpie.qa.support;
+
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.specification.RequestSpecification;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process TCP proxy that sits between the tests and the API and injects network faults described
+ * by a {@link FaultProfile}.
+ * <p>
+ * For a plain-HTTP upstream (e.g. {@link StubQuoteServer}) the proxy acts as a reverse proxy: point
+ * the client at {@link #getBaseUri()}. For an HTTPS upstream it acts as an HTTP CONNECT proxy, so TLS
+ * stays end-to-end and faults are applied to the encrypted byte stream. {@link #requestSpecification()}
+ * returns a RestAssured spec wired up correctly for either case.
+ * <p>
+ * {@link #inject(FaultProfile)} drops all open connections, so pooled keep-alive connections cannot
+ * bypass a newly injected fault.
+ */
+public class FaultInjectingProxy implements AutoCloseable {
+
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final byte[] CONNECT_PREFIX = "CONNECT ".getBytes(StandardCharsets.US_ASCII);
+
+    private final URI upstream;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger faultedConnectionsLeft = new AtomicInteger();
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong faultedConnections = new AtomicLong();
+    private volatile FaultProfile profile = FaultProfile.none();
+
+    private FaultInjectingProxy(URI upstream) throws IOException {
+        this.upstream = upstream;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fault-proxy");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::acceptLoop);
+    }
+
+    /**
+     * Starts a proxy in front of the given base URI, e.g. {@link com.magpie.qa.BaseTest#BASE_URI}.
+     */
+    public static FaultInjectingProxy forBaseUri(String baseUri) throws IOException {
+        return new FaultInjectingProxy(URI.create(baseUri));
+    }
+
+    /**
+     * Replaces the active fault profile and drops every open connection.
+     */
+    public void inject(FaultProfile faults) {
+        profile = faults;
+        faultedConnectionsLeft.set(faults.getConnectionLimit());
+        dropConnections();
+    }
+
+    /**
+     * Back to transparent forwarding.
+     */
+    public void clearFaults() {
+        inject(FaultProfile.none());
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Base URI to use in reverse-proxy mode (plain-HTTP upstream only).
+     */
+    public String getBaseUri() {
+        return "http://127.0.0.1:" + getPort();
+    }
+
+    public boolean isTunneling() {
+        return "https".equalsIgnoreCase(upstream.getScheme());
+    }
+
+    /**
+     * A RestAssured spec that routes requests through this proxy.
+     */
+    public RequestSpecification requestSpecification() {
+        if (isTunneling()) {
+            return new RequestSpecBuilder().setBaseUri(upstream.toString()).setProxy("127.0.0.1", getPort()).build();
+        }
+        return new RequestSpecBuilder().setBaseUri(getBaseUri()).build();
+    }
+
+    public long getConnectionCount() {
+        return connections.get();
+    }
+
+    public long getFaultedConnectionCount() {
+        return faultedConnections.get();
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(serverSocket);
+        dropConnections();
+        executor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                executor.execute(() -> handle(client));
+            } catch (IOException e) {
+                // Socket closed by close()
+            }
+        }
+    }
+
+    private void handle(Socket client) {
+        connections.incrementAndGet();
+        FaultProfile faults = profile;
+        boolean faulted = faults.getConnectionLimit() == 0
+                || faultedConnectionsLeft.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0;
+        if (!faulted) {
+            faults = FaultProfile.none();
+        } else if (faults != FaultProfile.none()) {
+            faultedConnections.incrementAndGet();
+        }
+
+        Socket server = new Socket();
+        openSockets.add(client);
+        openSockets.add(server);
+        try {
+            client.setTcpNoDelay(true);
+            BufferedInputStream clientIn = new BufferedInputStream(client.getInputStream());
+            boolean tunnel = isConnectRequest(clientIn);
+            server.connect(tunnel ? readConnectTarget(clientIn) : upstreamAddress(), CONNECT_TIMEOUT_MS);
+            server.setTcpNoDelay(true);
+            if (tunnel) {
+                OutputStream clientOut = client.getOutputStream();
+                clientOut.write("HTTP/1.1 200 Connection established\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                clientOut.flush();
+            }
+
+            Connection connection = new Connection(client, server, faults);
+            executor.execute(() -> pumpRequests(clientIn, connection));
+            pumpResponses(connection);
+        } catch (IOException e) {
+            // Peer went away or the connection was dropped by inject()/close()
+        } finally {
+            release(client);
+            release(server);
+        }
+    }
+
+    /**
+     * Peeks at the first bytes of the client stream without consuming them unless they start a
+     * CONNECT request.
+     */
+    private static boolean isConnectRequest(BufferedInputStream in) throws IOException {
+        in.mark(CONNECT_PREFIX.length);
+        byte[] prefix = new byte[CONNECT_PREFIX.length];
+        int read = 0;
+        while (read < prefix.length) {
+            int n = in.read(prefix, read, prefix.length - read);
+            if (n == -1) {
+                throw new IOException("Client closed before sending a request");
+            }
+            read += n;
+        }
+        if (Arrays.equals(prefix, CONNECT_PREFIX)) {
+            return true;
+        }
+        in.reset();
+        return false;
+    }
+
+    /**
+     * Consumes the rest of a CONNECT request and returns its target authority.
+     */
+    private static InetSocketAddress readConnectTarget(InputStream in) throws IOException {
+        String authority = readLine(in).split(" ")[0];
+        String line;
+        do {
+            line = readLine(in);
+        } while (!line.isEmpty());
+        int colon = authority.lastIndexOf(':');
+        return new InetSocketAddress(authority.substring(0, colon), Integer.parseInt(authority.substring(colon + 1)));
+    }
+
+    private InetSocketAddress upstreamAddress() {
+        int port = upstream.getPort() != -1 ? upstream.getPort() : (isTunneling() ? 443 : 80);
+        return new InetSocketAddress(upstream.getHost(), port);
+    }
+
+    private void pumpRequests(InputStream clientIn, Connection connection) {
+        byte[] buffer = new byte[8192];
+        try {
+            OutputStream out = connection.server.getOutputStream();
+            int n;
+            while ((n = clientIn.read(buffer)) != -1) {
+                // Flag before forwarding so the response can never overtake it
+                connection.requestPending = true;
+                out.write(buffer, 0, n);
+                out.flush();
+            }
+            connection.server.shutdownOutput();
+        } catch (IOException e) {
+            release(connection.server);
+        }
+    }
+
+    private void pumpResponses(Connection connection) throws IOException {
+        FaultProfile faults = connection.faults;
+        InputStream in = connection.server.getInputStream();
+        OutputStream out = connection.client.getOutputStream();
+        byte[] buffer = new byte[8192];
+        long forwarded = 0;
+        long startNanos = System.nanoTime();
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            if (connection.requestPending) {
+                connection.requestPending = false;
+                sleepMillis(faults.getLatencyMillis());
+            }
+            int offset = 0;
+            while (offset < n) {
+                if (faults.getResetAfterBytes() >= 0 && forwarded >= faults.getResetAfterBytes()) {
+                    reset(connection.client);
+                    return;
+                }
+                if (faults.getTruncateAfterBytes() >= 0 && forwarded >= faults.getTruncateAfterBytes()) {
+                    return;
+                }
+                int chunk = chunkSize(faults, n - offset, forwarded);
+                out.write(buffer, offset, chunk);
+                out.flush();
+                forwarded += chunk;
+                offset += chunk;
+
+                if (faults.getBandwidthBytesPerSecond() > 0) {
+                    long dueNanos = startNanos + forwarded * TimeUnit.SECONDS.toNanos(1) / faults.getBandwidthBytesPerSecond();
+                    sleepNanos(dueNanos - System.nanoTime());
+                }
+                if (faults.getDripChunkBytes() > 0) {
+                    sleepMillis(faults.getDripIntervalMillis());
+                }
+            }
+        }
+        if (faults.getResetAfterBytes() >= 0 && forwarded >= faults.getResetAfterBytes()) {
+            reset(connection.client);
+            return;
+        }
+        connection.client.shutdownOutput();
+    }
+
+    private static int chunkSize(FaultProfile faults, int available, long forwarded) {
+        long chunk = available;
+        if (faults.getDripChunkBytes() > 0) {
+            chunk = Math.min(chunk, faults.getDripChunkBytes());
+        }
+        if (faults.getBandwidthBytesPerSecond() > 0) {
+            // Roughly ten writes per second keeps the pacing smooth
+            chunk = Math.min(chunk, Math.max(1, faults.getBandwidthBytesPerSecond() / 10));
+        }
+        if (faults.getResetAfterBytes() >= 0) {
+            chunk = Math.min(chunk, faults.getResetAfterBytes() - forwarded);
+        }
+        if (faults.getTruncateAfterBytes() >= 0) {
+            chunk = Math.min(chunk, faults.getTruncateAfterBytes() - forwarded);
+        }
+        return (int) chunk;
+    }
+
+    private void dropConnections() {
+        for (Socket socket : openSockets) {
+            release(socket);
+        }
+    }
+
+    private void release(Socket socket) {
+        openSockets.remove(socket);
+        closeQuietly(socket);
+    }
+
+    private static void reset(Socket socket) {
+        try {
+            // SO_LINGER with a zero timeout makes close() send RST instead of FIN
+            socket.setSoLinger(true, 0);
+        } catch (IOException e) {
+            // Already closed
+        }
+        closeQuietly(socket);
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (b != '\r') {
+                sb.append((char) b);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void sleepMillis(long millis) throws IOException {
+        sleepNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static void sleepNanos(long nanos) throws IOException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Proxy interrupted", e);
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Nothing useful to do
+        }
+    }
+
+    private static final class Connection {
+
+        private final Socket client;
+        private final Socket server;
+        private final FaultProfile faults;
+        private volatile boolean requestPending;
+
+        private Connection(Socket client, Socket server, FaultProfile faults) {
+            this.client = client;
+            this.server = server;
+            this.faults = faults;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.magpie.qa.support;
+
+/**
+ * Immutable description of the network faults a {@link FaultInjectingProxy} applies. Start from
+ * {@link #none()} and combine faults with the {@code with...} methods, e.g.
+ * {@code FaultProfile.none().withLatencyMillis(500).withBandwidth(16 * 1024)}.
+ * <p>
+ * Latency, bandwidth and drip act on the response direction (upstream to client). Reset and
+ * truncation trigger once the given number of response bytes has been forwarded on a connection.
+ */
+public final class FaultProfile {
+
+    private static final FaultProfile NONE = new FaultProfile(0, 0, -1, -1, 0, 0, 0);
+
+    private final long latencyMillis;
+    private final long bandwidthBytesPerSecond;
+    private final long resetAfterBytes;
+    private final long truncateAfterBytes;
+    private final int dripChunkBytes;
+    private final long dripIntervalMillis;
+    private final int connectionLimit;
+
+    private FaultProfile(long latencyMillis, long bandwidthBytesPerSecond, long resetAfterBytes, long truncateAfterBytes,
+                         int dripChunkBytes, long dripIntervalMillis, int connectionLimit) {
+        this.latencyMillis = latencyMillis;
+        this.bandwidthBytesPerSecond = bandwidthBytesPerSecond;
+        this.resetAfterBytes = resetAfterBytes;
+        this.truncateAfterBytes = truncateAfterBytes;
+        this.dripChunkBytes = dripChunkBytes;
+        this.dripIntervalMillis = dripIntervalMillis;
+        this.connectionLimit = connectionLimit;
+    }
+
+    /**
+     * A transparent profile: bytes are forwarded untouched.
+     */
+    public static FaultProfile none() {
+        return NONE;
+    }
+
+    /**
+     * Delays the first response bytes that follow every client write, i.e. adds latency per request.
+     */
+    public FaultProfile withLatencyMillis(long latencyMillis) {
+        return new FaultProfile(latencyMillis, bandwidthBytesPerSecond, resetAfterBytes, truncateAfterBytes,
+                dripChunkBytes, dripIntervalMillis, connectionLimit);
+    }
+
+    /**
+     * Caps response throughput per connection.
+     */
+    public FaultProfile withBandwidth(long bytesPerSecond) {
+        return new FaultProfile(latencyMillis, bytesPerSecond, resetAfterBytes, truncateAfterBytes,
+                dripChunkBytes, dripIntervalMillis, connectionLimit);
+    }
+
+    /**
+     * Aborts the client connection with a TCP RST after {@code bytes} response bytes (0 = before any).
+     */
+    public FaultProfile withResetAfterBytes(long bytes) {
+        return new FaultProfile(latencyMillis, bandwidthBytesPerSecond, bytes, truncateAfterBytes,
+                dripChunkBytes, dripIntervalMillis, connectionLimit);
+    }
+
+    /**
+     * Closes the client connection cleanly after {@code bytes} response bytes, cutting the body short.
+     */
+    public FaultProfile withTruncateAfterBytes(long bytes) {
+        return new FaultProfile(latencyMillis, bandwidthBytesPerSecond, resetAfterBytes, bytes,
+                dripChunkBytes, dripIntervalMillis, connectionLimit);
+    }
+
+    /**
+     * Forwards the response {@code chunkBytes} at a time with {@code intervalMillis} between chunks.
+     */
+    public FaultProfile withSlowDrip(int chunkBytes, long intervalMillis) {
+        return new FaultProfile(latencyMillis, bandwidthBytesPerSecond, resetAfterBytes, truncateAfterBytes,
+                chunkBytes, intervalMillis, connectionLimit);
+    }
+
+    /**
+     * Applies the faults only to the next {@code connections} connections; later ones pass through
+     * untouched. Useful to make a first attempt fail and its retry succeed.
+     */
+    public FaultProfile forFirstConnections(int connections) {
+        return new FaultProfile(latencyMillis, bandwidthBytesPerSecond, resetAfterBytes, truncateAfterBytes,
+                dripChunkBytes, dripIntervalMillis, connections);
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public long getBandwidthBytesPerSecond() {
+        return bandwidthBytesPerSecond;
+    }
+
+    public long getResetAfterBytes() {
+        return resetAfterBytes;
+    }
+
+    public long getTruncateAfterBytes() {
+        return truncateAfterBytes;
+    }
+
+    public int getDripChunkBytes() {
+        return dripChunkBytes;
+    }
+
+    public long getDripIntervalMillis() {
+        return dripIntervalMillis;
+    }
+
+    /**
+     * Number of connections the profile applies to, or 0 for all of them.
+     */
+    public int getConnectionLimit() {
+        return connectionLimit;
+    }
+
+    @Override
+    public String toString() {
+        return "FaultProfile{latencyMillis=" + latencyMillis + ", bandwidthBytesPerSecond=" + bandwidthBytesPerSecond
+                + ", resetAfterBytes=" + resetAfterBytes + ", truncateAfterBytes=" + truncateAfterBytes
+                + ", dripChunkBytes=" + dripChunkBytes + ", dripIntervalMillis=" + dripIntervalMillis
+                + ", connectionLimit=" + connectionLimit + "}";
+    }
+}
@@ -0,0 +1,66 @@
+package com.magpie.qa.support;
+
+import com.magpie.qa.BaseTest;
+import com.magpie.qa.UpstreamAvailabilityTests;
+import org.testng.IMethodSelector;
+import org.testng.IMethodSelectorContext;
+import org.testng.ITestNGMethod;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In incremental mode ({@code -Dincremental=true}) deselects scenarios whose last result in the
+ * {@link RunHistory} still stands: they passed, less than {@code incremental.ttlHours} (default 24)
+ * ago, with the same {@link ScenarioFingerprint}. Everything else runs: new or changed scenarios,
+ * scenarios that failed, timed out or were skipped, and stale results.
+ * <p>
+ * A selector only sees methods, not DataProvider rows, so data-driven methods always pass here and
+ * each invocation is checked on its own by {@link #skipReason(Class, String, Object[])}.
+ * Outside incremental mode the selector includes everything and leaves the decision to TestNG's
+ * regular include/exclude rules.
+ */
+public class IncrementalMethodSelector implements IMethodSelector {
+
+    public static final boolean ENABLED = Boolean.getBoolean("incremental");
+    public static final long TTL_MILLIS = TimeUnit.HOURS.toMillis(Long.getLong("incremental.ttlHours", 24));
+
+    @Override
+    public boolean includeMethod(IMethodSelectorContext context, ITestNGMethod method, boolean isTestMethod) {
+        // The availability check has no inputs of its own; an unchanged, passed run says nothing about now
+        if (!ENABLED || !isTestMethod || method.isDataDriven() || method.getRealClass() == UpstreamAvailabilityTests.class) {
+            return true;
+        }
+        Class<?> type = method.getRealClass();
+        String name = method.getMethodName();
+        String reason = RunHistory.shared().rerunReason(RunHistoryListener.scenarioKey(type, name),
+                ScenarioFingerprint.of(type, name, null, BaseTest.BASE_URI), TTL_MILLIS);
+        if (reason == null) {
+            // Stop here so the default selector cannot include it again
+            context.setStopped(true);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void setTestMethods(List<ITestNGMethod> testMethods) {
+        // Decisions are made per method from the run history
+    }
+
+    /**
+     * Reason to skip one data-driven invocation in incremental mode, or null to run it.
+     */
+    public static String skipReason(Class<?> type, String methodName, Object[] parameters) {
+        if (!ENABLED || parameters == null || parameters.length == 0) {
+            return null;
+        }
+        String key = RunHistoryListener.invocationKey(type, methodName, parameters);
+        RunHistory.Entry entry = RunHistory.shared().get(key);
+        String reason = RunHistory.shared().rerunReason(key,
+                ScenarioFingerprint.of(type, methodName, parameters, BaseTest.BASE_URI), TTL_MILLIS);
+        return reason != null ? null
+                : "Incremental: unchanged and passed " + (System.currentTimeMillis() - entry.getLastRunEpochMillis()) / 60_000
+                + " minutes ago";
+    }
+}
@@ -0,0 +1,208 @@
+package com.magpie.qa.support;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe, fixed-size log-linear histogram of latencies in microseconds.
+ * <p>
+ * Values below 128 are counted exactly; above that every power of two is split into 64 linear
+ * sub-buckets, so any reported percentile is within ~1.6% of the true value. Because bucket
+ * boundaries are fixed, merging two histograms is exact: the merged result is identical to one
+ * histogram that recorded every value directly. The same holds across processes:
+ * {@link #writeTo(DataOutput)} sends only the non-empty buckets and {@link #readFrom(DataInput)}
+ * restores them unchanged.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+
+    /** Largest trackable value (~19 hours in microseconds); larger values are clamped. */
+    public static final long MAX_VALUE = (1L << 36) - 1;
+
+    static final int BUCKET_COUNT = bucketIndex(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    public void recordNanos(long nanos) {
+        record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    public void record(long micros) {
+        long value = Math.min(Math.max(micros, 0), MAX_VALUE);
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.incrementAndGet();
+        sum.addAndGet(value);
+        updateMin(value);
+        updateMax(value);
+    }
+
+    /**
+     * Adds every count of {@code other} into this histogram.
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) {
+                counts.addAndGet(i, c);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        sum.addAndGet(other.sum.get());
+        if (other.getCount() > 0) {
+            updateMin(other.min.get());
+            updateMax(other.max.get());
+        }
+    }
+
+    /**
+     * Writes a compact snapshot: the non-empty buckets as (index, count) pairs followed by sum, min
+     * and max, typically a few hundred bytes however many values were recorded. Safe to call while
+     * other threads record; the snapshot is then consistent per bucket.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        long[] snapshot = new long[BUCKET_COUNT];
+        int nonEmpty = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            if (snapshot[i] != 0) {
+                nonEmpty++;
+            }
+        }
+        out.writeShort(nonEmpty);
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (snapshot[i] != 0) {
+                out.writeShort(i);
+                out.writeLong(snapshot[i]);
+            }
+        }
+        out.writeLong(sum.get());
+        out.writeLong(min.get());
+        out.writeLong(max.get());
+    }
+
+    public static LatencyHistogram readFrom(DataInput in) throws IOException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int nonEmpty = in.readUnsignedShort();
+        long total = 0;
+        for (int n = 0; n < nonEmpty; n++) {
+            int index = in.readUnsignedShort();
+            if (index >= BUCKET_COUNT) {
+                throw new IOException("Bucket index out of range: " + index);
+            }
+            long count = in.readLong();
+            histogram.counts.set(index, count);
+            total += count;
+        }
+        histogram.totalCount.set(total);
+        histogram.sum.set(in.readLong());
+        histogram.min.set(in.readLong());
+        histogram.max.set(in.readLong());
+        return histogram;
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMin() {
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+    public long getMax() {
+        return getCount() == 0 ? 0 : max.get();
+    }
+
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    /**
+     * Value at the given percentile (0-100) in microseconds, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                // Report the bucket midpoint, clamped to the exact extremes
+                long value = (lowerBound(i) + upperBound(i)) / 2;
+                return Math.min(Math.max(value, getMin()), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * One-line summary in milliseconds, e.g. "n=120 p50=81.2ms p90=140.0ms p99=410.3ms max=512.0ms".
+     */
+    public String summary() {
+        return String.format("n=%d p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms",
+                getCount(), millis(getValueAtPercentile(50)), millis(getValueAtPercentile(90)),
+                millis(getValueAtPercentile(99)), millis(getMax()));
+    }
+
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int top = (int) (value >>> shift);
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+
+    static long lowerBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int k = index - LINEAR_LIMIT;
+        int shift = k / SUB_BUCKETS + 1;
+        long top = SUB_BUCKETS + k % SUB_BUCKETS;
+        return top << shift;
+    }
+
+    static long upperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int k = index - LINEAR_LIMIT;
+        int shift = k / SUB_BUCKETS + 1;
+        long top = SUB_BUCKETS + k % SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private void updateMin(long value) {
+        long current;
+        while (value < (current = min.get()) && !min.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    private void updateMax(long value) {
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+}
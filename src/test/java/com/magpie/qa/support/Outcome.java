@@ -0,0 +1,52 @@
+package com.magpie.qa.support;
+
+import org.testng.ITestResult;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Outcome class of a test scenario. Timeouts are separated from ordinary failures: a scenario that
+ * ran out of time says nothing about the correctness of the response it never got.
+ */
+public enum Outcome {
+
+    PASSED, FAILED, TIMED_OUT, SKIPPED;
+
+    /**
+     * Attribute under which the scenario's {@link Deadline} is stored on its ITestResult.
+     */
+    public static final String DEADLINE_ATTRIBUTE = "scenario.deadline";
+
+    public static Outcome of(ITestResult result) {
+        switch (result.getStatus()) {
+            case ITestResult.SUCCESS:
+                return PASSED;
+            case ITestResult.SKIP:
+                return SKIPPED;
+            default:
+                Object deadline = result.getAttribute(DEADLINE_ATTRIBUTE);
+                boolean expired = deadline instanceof Deadline && ((Deadline) deadline).isExpired();
+                return isTimeout(result.getThrowable(), expired) ? TIMED_OUT : FAILED;
+        }
+    }
+
+    /**
+     * Whether the failure was caused by a timeout. Once the deadline has expired, any failure other
+     * than an assertion (e.g. a connection closed by the deadline watchdog) counts as a timeout too.
+     */
+    public static boolean isTimeout(Throwable failure, boolean deadlineExpired) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof InterruptedIOException || t instanceof TimeoutException
+                    || t instanceof DeadlineExceededException
+                    || t.getClass().getName().equals("org.testng.internal.thread.ThreadTimeoutException")) {
+                return true;
+            }
+        }
+        return deadlineExpired && failure != null && !(failure instanceof AssertionError);
+    }
+
+    public static boolean isTimeout(Throwable failure) {
+        return isTimeout(failure, false);
+    }
+}
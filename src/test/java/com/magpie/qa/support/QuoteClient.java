@@ -0,0 +1,187 @@
+package com.magpie.qa.support;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Lightweight, thread-safe HTTP client for the load and probe tooling. RestAssured is convenient for
+ * assertions but too heavy to drive thousands of requests, so this client talks to the API through
+ * {@link HttpURLConnection} (keep-alive pooled by the JDK) and parses bodies straight from the stream.
+ * <p>
+ * Responses are requested with gzip or deflate compression (turn it off with
+ * {@code -Dquote.compression=false}) and are inflated on the fly between the socket and the JSON parser.
+ * Both the bytes on the wire and the decoded body size are counted, see {@link QuoteResult#getWireBytes()}.
+ */
+public class QuoteClient {
+
+    public static final int DEFAULT_CONNECT_TIMEOUT_MS = 10_000;
+    public static final int DEFAULT_READ_TIMEOUT_MS = 30_000;
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    // The stream is drained and closed by us so the connection can be reused
+    private static final ObjectMapper MAPPER = new ObjectMapper().disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+    private final String baseUri;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final boolean compression;
+
+    public QuoteClient(String baseUri) {
+        this(baseUri, DEFAULT_CONNECT_TIMEOUT_MS, DEFAULT_READ_TIMEOUT_MS);
+    }
+
+    public QuoteClient(String baseUri, int connectTimeoutMs, int readTimeoutMs) {
+        this(baseUri, connectTimeoutMs, readTimeoutMs, Boolean.parseBoolean(System.getProperty("quote.compression", "true")));
+    }
+
+    /**
+     * @param compression whether to send {@code Accept-Encoding: gzip, deflate}
+     */
+    public QuoteClient(String baseUri, int connectTimeoutMs, int readTimeoutMs, boolean compression) {
+        this.baseUri = baseUri.endsWith("/") ? baseUri.substring(0, baseUri.length() - 1) : baseUri;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.compression = compression;
+    }
+
+    public String getBaseUri() {
+        return baseUri;
+    }
+
+    public boolean isCompression() {
+        return compression;
+    }
+
+    /**
+     * Executes the request and never throws: transport failures are captured in the returned result.
+     */
+    public QuoteResult execute(QuoteRequest request) {
+        long start = System.nanoTime();
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(baseUri + request.toPathAndQuery()).openConnection();
+            connection.setConnectTimeout(connectTimeoutMs);
+            connection.setReadTimeout(readTimeoutMs);
+            connection.setRequestProperty("Accept", "application/json");
+            if (compression) {
+                connection.setRequestProperty("Accept-Encoding", ACCEPT_ENCODING);
+            }
+
+            int status = connection.getResponseCode();
+            InputStream raw = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            String encoding = contentEncoding(connection.getContentEncoding());
+            JsonNode body = null;
+            long bytes = 0;
+            long wireBytes = 0;
+            if (raw != null) {
+                try (CountingInputStream wire = new CountingInputStream(raw);
+                     CountingInputStream in = new CountingInputStream(decode(wire, encoding))) {
+                    body = readJson(in);
+                    drain(in);
+                    // Anything after the end of the compressed stream still has to leave the socket
+                    drain(wire);
+                    bytes = in.getCount();
+                    wireBytes = wire.getCount();
+                }
+            }
+            return new QuoteResult(request, status, System.nanoTime() - start, bytes, wireBytes, encoding, body, null);
+        } catch (IOException | RuntimeException e) {
+            if (connection != null) {
+                connection.disconnect();
+            }
+            return new QuoteResult(request, -1, System.nanoTime() - start, 0, 0, null, null, e);
+        }
+    }
+
+    /**
+     * Normalised Content-Encoding, or null for an uncompressed body.
+     */
+    private static String contentEncoding(String header) {
+        if (header == null || header.trim().isEmpty() || "identity".equalsIgnoreCase(header.trim())) {
+            return null;
+        }
+        return header.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Wraps the connection stream in the matching inflater. Codings we never ask for are passed
+     * through, and the JSON parser then reports the body as not JSON.
+     */
+    private static InputStream decode(InputStream in, String encoding) throws IOException {
+        if ("gzip".equals(encoding) || "x-gzip".equals(encoding)) {
+            return new GZIPInputStream(in, 8192);
+        }
+        if ("deflate".equals(encoding)) {
+            // HTTP "deflate" is the zlib format (RFC 9110), which is what InflaterInputStream expects
+            return new InflaterInputStream(in);
+        }
+        return in;
+    }
+
+    private static JsonNode readJson(InputStream in) {
+        try {
+            return MAPPER.readTree(in);
+        } catch (IOException e) {
+            // Non-JSON bodies (HTML error pages from a proxy, etc.) are not a transport failure
+            return null;
+        }
+    }
+
+    /**
+     * Reads any trailing bytes so the JDK can return the connection to its keep-alive pool.
+     */
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[4096];
+        while (in.read(buffer) != -1) {
+            // discard
+        }
+    }
+
+    static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
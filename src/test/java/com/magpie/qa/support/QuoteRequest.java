@@ -0,0 +1,121 @@
+package com.magpie.qa.support;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable GET request against one of the aggregator endpoints: the endpoint path plus its
+ * query parameters in insertion order. Multi-valued parameters (e.g. liquiditySources) keep every value.
+ */
+public final class QuoteRequest {
+
+    public static final String QUOTE_ENDPOINT = "/aggregator/quote";
+    public static final String QUOTE_IN_ENDPOINT = "/aggregator/quote-in";
+
+    private final String endpoint;
+    private final Map<String, List<String>> params;
+
+    private QuoteRequest(String endpoint, Map<String, List<String>> params) {
+        this.endpoint = endpoint;
+        this.params = params;
+    }
+
+    public static Builder quote() {
+        return new Builder(QUOTE_ENDPOINT);
+    }
+
+    public static Builder quoteIn() {
+        return new Builder(QUOTE_IN_ENDPOINT);
+    }
+
+    public static Builder to(String endpoint) {
+        return new Builder(endpoint);
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public Map<String, List<String>> getParams() {
+        return params;
+    }
+
+    /**
+     * Returns the first value of the given parameter, or null when it is absent.
+     */
+    public String getParam(String name) {
+        List<String> values = params.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * Endpoint and URL-encoded query string, e.g. "/aggregator/quote?network=arbitrum&amp;...".
+     */
+    public String toPathAndQuery() {
+        StringBuilder sb = new StringBuilder(endpoint);
+        char separator = '?';
+        for (Map.Entry<String, List<String>> param : params.entrySet()) {
+            for (String value : param.getValue()) {
+                sb.append(separator).append(encode(param.getKey())).append('=').append(encode(value));
+                separator = '&';
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Endpoint and parameters sorted by name, so two requests built in a different order compare equal.
+     */
+    public String toCanonicalString() {
+        return endpoint + " " + new TreeMap<>(params);
+    }
+
+    @Override
+    public String toString() {
+        return toPathAndQuery();
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static final class Builder {
+
+        private final String endpoint;
+        private final Map<String, List<String>> params = new LinkedHashMap<>();
+
+        private Builder(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public Builder param(String name, Object... values) {
+            List<String> list = params.get(name);
+            if (list == null) {
+                list = new ArrayList<>();
+                params.put(name, list);
+            }
+            for (Object value : values) {
+                list.add(String.valueOf(value));
+            }
+            return this;
+        }
+
+        public QuoteRequest build() {
+            Map<String, List<String>> copy = new LinkedHashMap<>();
+            for (Map.Entry<String, List<String>> param : params.entrySet()) {
+                copy.put(param.getKey(), Collections.unmodifiableList(new ArrayList<>(param.getValue())));
+            }
+            return new QuoteRequest(endpoint, Collections.unmodifiableMap(copy));
+        }
+    }
+}
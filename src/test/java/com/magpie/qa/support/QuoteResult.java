@@ -0,0 +1,109 @@
+package com.magpie.qa.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Outcome of a single {@link QuoteClient} call. A transport failure (connection refused, timeout, ...)
+ * is reported with status code -1 and the exception in {@link #getError()}.
+ */
+public final class QuoteResult {
+
+    private final QuoteRequest request;
+    private final int statusCode;
+    private final long latencyNanos;
+    private final long bytes;
+    private final long wireBytes;
+    private final String contentEncoding;
+    private final JsonNode body;
+    private final Throwable error;
+
+    QuoteResult(QuoteRequest request, int statusCode, long latencyNanos, long bytes, long wireBytes,
+                String contentEncoding, JsonNode body, Throwable error) {
+        this.request = request;
+        this.statusCode = statusCode;
+        this.latencyNanos = latencyNanos;
+        this.bytes = bytes;
+        this.wireBytes = wireBytes;
+        this.contentEncoding = contentEncoding;
+        this.body = body;
+        this.error = error;
+    }
+
+    public QuoteRequest getRequest() {
+        return request;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * Size of the response body after decompression, i.e. of the JSON document itself.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Number of response body bytes read from the connection; smaller than {@link #getBytes()} when
+     * the response was compressed.
+     */
+    public long getWireBytes() {
+        return wireBytes;
+    }
+
+    /**
+     * Content-Encoding of the response ("gzip", "deflate"), or null when it was sent uncompressed.
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * Parsed JSON body, or null if the body was empty or not JSON.
+     */
+    public JsonNode getBody() {
+        return body;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return statusCode == 200;
+    }
+
+    public boolean isTransportError() {
+        return error != null;
+    }
+
+    /**
+     * The "amountOut" field of a successful quote, or null.
+     */
+    public String getAmountOut() {
+        return text("amountOut");
+    }
+
+    /**
+     * The quote "id" field, or null.
+     */
+    public String getQuoteId() {
+        return text("id");
+    }
+
+    /**
+     * The Magpie error "code" of a failed request (e.g. 2003, 2042), or 0 when absent.
+     */
+    public int getErrorCode() {
+        return body != null && body.hasNonNull("code") ? body.get("code").asInt() : 0;
+    }
+
+    private String text(String field) {
+        return body != null && body.hasNonNull(field) ? body.get(field).asText() : null;
+    }
+}
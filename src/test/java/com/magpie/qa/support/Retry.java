@@ -0,0 +1,61 @@
+package com.magpie.qa.support;
+
+import org.testng.SkipException;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+/**
+ * Retries an action on transport failures and timeouts, giving each attempt an equal share of the
+ * time left in the enclosing {@link Deadline}. Anything else (assertion failures, a skip from the
+ * upstream guard, programming errors) is rethrown straight away.
+ */
+public final class Retry {
+
+    private Retry() {
+    }
+
+    public static <T> T withinDeadline(Deadline deadline, int maxAttempts, Callable<T> attempt) {
+        RuntimeException last = null;
+        for (int i = 0; i < maxAttempts && !deadline.isExpired(); i++) {
+            Deadline slice = deadline.slice(maxAttempts - i);
+            Deadline.Scope scope = slice.enter();
+            try {
+                return attempt.call();
+            } catch (AssertionError e) {
+                throw e;
+            } catch (Exception e) {
+                RuntimeException failure = e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
+                if (!isRetryable(e, slice.isExpired())) {
+                    throw failure;
+                }
+                last = failure;
+            } finally {
+                scope.close();
+            }
+            System.out.println("INFO: attempt " + (i + 1) + "/" + maxAttempts + " failed: " + last);
+        }
+        if (last == null || deadline.isExpired()) {
+            throw new DeadlineExceededException("No attempt succeeded within " + deadline.getBudgetMillis() + "ms", last);
+        }
+        throw last;
+    }
+
+    /**
+     * Timeouts, including failures caused by the attempt's deadline closing its connection, and I/O errors.
+     */
+    static boolean isRetryable(Throwable failure, boolean attemptExpired) {
+        if (failure instanceof SkipException) {
+            return false;
+        }
+        if (Outcome.isTimeout(failure, attemptExpired)) {
+            return true;
+        }
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,252 @@
+package com.magpie.qa.support;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-scenario history kept across runs in {@code .magpie-qa/run-history.json} (override with
+ * {@code -Drun.history=<file>}): how often a scenario ran and failed, how long it took and how it
+ * ended last time. Durations and failure likelihood are exponentially weighted so that recent runs
+ * count most. Each entry also carries the {@link ScenarioFingerprint} of the inputs it ran with, so
+ * incremental runs can tell which scenarios are still up to date.
+ */
+public class RunHistory {
+
+    public static final Path DEFAULT_FILE = Paths.get(System.getProperty("run.history", ".magpie-qa/run-history.json"));
+
+    // Weight of the latest run in the moving averages
+    private static final double ALPHA = 0.3;
+    // Assumed for scenarios that never ran
+    private static final double UNKNOWN_FAILURE_LIKELIHOOD = 0.5;
+    private static final long UNKNOWN_DURATION_MILLIS = 1_000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static RunHistory shared;
+
+    private final Path file;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public RunHistory(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * The history of {@link #DEFAULT_FILE}, loaded once per JVM.
+     */
+    public static synchronized RunHistory shared() {
+        if (shared == null) {
+            shared = load(DEFAULT_FILE);
+        }
+        return shared;
+    }
+
+    /**
+     * Loads a history file; a missing or unreadable file gives an empty history.
+     */
+    public static RunHistory load(Path file) {
+        RunHistory history = new RunHistory(file);
+        if (Files.exists(file)) {
+            try {
+                Snapshot snapshot = MAPPER.readValue(file.toFile(), Snapshot.class);
+                if (snapshot.getScenarios() != null) {
+                    history.entries.putAll(snapshot.getScenarios());
+                }
+            } catch (IOException e) {
+                System.out.println("WARN: ignoring unreadable run history " + file + ": " + e.getMessage());
+            }
+        }
+        return history;
+    }
+
+    public synchronized void save() throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Snapshot snapshot = new Snapshot();
+        snapshot.setScenarios(new TreeMap<>(entries));
+        // Write then rename, so an interrupted run never leaves a truncated history behind
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        MAPPER.writeValue(temp.toFile(), snapshot);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public Entry get(String scenario) {
+        return entries.get(scenario);
+    }
+
+    public void record(String scenario, Outcome outcome, long durationMillis, String fingerprint) {
+        entries.compute(scenario, (key, previous) -> {
+            Entry entry = previous != null ? previous : new Entry();
+            boolean failed = outcome == Outcome.FAILED || outcome == Outcome.TIMED_OUT;
+            entry.runs++;
+            if (failed) {
+                entry.failures++;
+            }
+            entry.failureLikelihood = entry.runs == 1
+                    ? (failed ? 1.0 : 0.0)
+                    : ALPHA * (failed ? 1.0 : 0.0) + (1 - ALPHA) * entry.failureLikelihood;
+            entry.meanDurationMillis = entry.runs == 1
+                    ? durationMillis
+                    : ALPHA * durationMillis + (1 - ALPHA) * entry.meanDurationMillis;
+            entry.lastOutcome = outcome;
+            entry.fingerprint = fingerprint;
+            entry.lastDurationMillis = durationMillis;
+            entry.lastRunEpochMillis = System.currentTimeMillis();
+            return entry;
+        });
+    }
+
+    /**
+     * Why {@code scenario} has to run again, or null when its last result still stands: it passed,
+     * with the same fingerprint, less than {@code ttlMillis} ago.
+     */
+    public String rerunReason(String scenario, String fingerprint, long ttlMillis) {
+        Entry entry = entries.get(scenario);
+        if (entry == null) {
+            return "no previous result";
+        }
+        if (!fingerprint.equals(entry.fingerprint)) {
+            return "inputs changed";
+        }
+        if (entry.lastOutcome != Outcome.PASSED) {
+            return "last outcome was " + entry.lastOutcome;
+        }
+        long ageMillis = System.currentTimeMillis() - entry.lastRunEpochMillis;
+        if (ageMillis > ttlMillis) {
+            return "last result is " + ageMillis / 60_000 + " minutes old";
+        }
+        return null;
+    }
+
+    public double failureLikelihood(String scenario) {
+        Entry entry = entries.get(scenario);
+        return entry == null ? UNKNOWN_FAILURE_LIKELIHOOD : entry.failureLikelihood;
+    }
+
+    public double expectedDurationMillis(String scenario) {
+        Entry entry = entries.get(scenario);
+        return entry == null ? UNKNOWN_DURATION_MILLIS : entry.meanDurationMillis;
+    }
+
+    public Map<String, Entry> getEntries() {
+        return new TreeMap<>(entries);
+    }
+
+    /**
+     * History of one scenario. Public with bean accessors so it maps straight to JSON.
+     */
+    public static class Entry {
+
+        private int runs;
+        private int failures;
+        private double failureLikelihood;
+        private double meanDurationMillis;
+        private Outcome lastOutcome;
+        private String fingerprint;
+        private long lastDurationMillis;
+        private long lastRunEpochMillis;
+
+        public int getRuns() {
+            return runs;
+        }
+
+        public void setRuns(int runs) {
+            this.runs = runs;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        public void setFailures(int failures) {
+            this.failures = failures;
+        }
+
+        public double getFailureLikelihood() {
+            return failureLikelihood;
+        }
+
+        public void setFailureLikelihood(double failureLikelihood) {
+            this.failureLikelihood = failureLikelihood;
+        }
+
+        public double getMeanDurationMillis() {
+            return meanDurationMillis;
+        }
+
+        public void setMeanDurationMillis(double meanDurationMillis) {
+            this.meanDurationMillis = meanDurationMillis;
+        }
+
+        public Outcome getLastOutcome() {
+            return lastOutcome;
+        }
+
+        public void setLastOutcome(Outcome lastOutcome) {
+            this.lastOutcome = lastOutcome;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public void setFingerprint(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        public long getLastDurationMillis() {
+            return lastDurationMillis;
+        }
+
+        public void setLastDurationMillis(long lastDurationMillis) {
+            this.lastDurationMillis = lastDurationMillis;
+        }
+
+        public long getLastRunEpochMillis() {
+            return lastRunEpochMillis;
+        }
+
+        public void setLastRunEpochMillis(long lastRunEpochMillis) {
+            this.lastRunEpochMillis = lastRunEpochMillis;
+        }
+    }
+
+    /**
+     * On-disk form of the history.
+     */
+    public static class Snapshot {
+
+        private int version = 1;
+        private Map<String, Entry> scenarios;
+
+        public int getVersion() {
+            return version;
+        }
+
+        public void setVersion(int version) {
+            this.version = version;
+        }
+
+        public Map<String, Entry> getScenarios() {
+            return scenarios;
+        }
+
+        public void setScenarios(Map<String, Entry> scenarios) {
+            this.scenarios = scenarios;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.magpie.qa.support;
+
+import com.magpie.qa.BaseTest;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records every scenario's outcome and duration in the {@link RunHistory} and orders the next run
+ * from it: scenarios most likely to fail per second of runtime go first, so a broken build or
+ * upstream shows up in the first seconds of the run. Methods stay grouped by class so class-level
+ * setup still runs once. Disable the ordering with {@code -Dorder.byHistory=false}.
+ * <p>
+ * Skipped scenarios are not recorded; they say nothing about the scenario itself. Data-driven
+ * invocations are recorded under their own key, see {@link #invocationKey(Class, String, Object[])},
+ * and once per run under the method, as a {@link MethodRun}: the method's cost is all of its rows.
+ */
+public class RunHistoryListener implements ITestListener, IMethodInterceptor {
+
+    // Floor for the expected duration, so a never-failing instant test does not outrank everything
+    private static final double MIN_DURATION_MILLIS = 50;
+
+    private final ConcurrentMap<String, MethodRun> dataDrivenRuns = new ConcurrentHashMap<>();
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!Boolean.parseBoolean(System.getProperty("order.byHistory", "true"))) {
+            return methods;
+        }
+        RunHistory history = RunHistory.shared();
+        Map<Class<?>, List<IMethodInstance>> byClass = new LinkedHashMap<>();
+        for (IMethodInstance method : methods) {
+            byClass.computeIfAbsent(method.getMethod().getRealClass(), c -> new ArrayList<>()).add(method);
+        }
+        Map<Class<?>, Double> classPriority = new LinkedHashMap<>();
+        for (Map.Entry<Class<?>, List<IMethodInstance>> entry : byClass.entrySet()) {
+            entry.getValue().sort(Comparator.comparingDouble((IMethodInstance m) -> priority(history, m)).reversed());
+            classPriority.put(entry.getKey(), priority(history, entry.getValue().get(0)));
+        }
+
+        List<Class<?>> classes = new ArrayList<>(byClass.keySet());
+        classes.sort(Comparator.comparingDouble((Class<?> c) -> classPriority.get(c)).reversed());
+        List<IMethodInstance> ordered = new ArrayList<>(methods.size());
+        for (Class<?> type : classes) {
+            ordered.addAll(byClass.get(type));
+        }
+        return ordered;
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        RunHistory history = RunHistory.shared();
+        for (Map.Entry<String, MethodRun> run : dataDrivenRuns.entrySet()) {
+            history.record(run.getKey(), run.getValue().outcome, run.getValue().durationMillis, run.getValue().fingerprint);
+        }
+        dataDrivenRuns.clear();
+        try {
+            RunHistory.shared().save();
+        } catch (IOException e) {
+            System.out.println("WARN: could not save run history: " + e);
+        }
+    }
+
+    /**
+     * History key of a scenario: simple class name and method name.
+     */
+    public static String scenarioKey(Class<?> type, String methodName) {
+        return type.getSimpleName() + "." + methodName;
+    }
+
+    /**
+     * History key of one data-driven invocation: the method key plus a hash of its parameters, or
+     * just the method key when there are none.
+     */
+    public static String invocationKey(Class<?> type, String methodName, Object[] parameters) {
+        String key = scenarioKey(type, methodName);
+        return parameters == null || parameters.length == 0 ? key : key + "[" + ScenarioFingerprint.parametersHash(parameters) + "]";
+    }
+
+    private static double priority(RunHistory history, IMethodInstance method) {
+        String key = scenarioKey(method.getMethod().getRealClass(), method.getMethod().getMethodName());
+        return history.failureLikelihood(key) / Math.max(MIN_DURATION_MILLIS, history.expectedDurationMillis(key));
+    }
+
+    private void record(ITestResult result) {
+        Class<?> type = result.getTestClass().getRealClass();
+        String method = result.getMethod().getMethodName();
+        Object[] parameters = result.getParameters();
+        Outcome outcome = Outcome.of(result);
+        long durationMillis = result.getEndMillis() - result.getStartMillis();
+        RunHistory history = RunHistory.shared();
+        String methodFingerprint = ScenarioFingerprint.of(type, method, null, BaseTest.BASE_URI);
+        if (parameters == null || parameters.length == 0) {
+            history.record(scenarioKey(type, method), outcome, durationMillis, methodFingerprint);
+            return;
+        }
+        history.record(invocationKey(type, method, parameters), outcome, durationMillis,
+                ScenarioFingerprint.of(type, method, parameters, BaseTest.BASE_URI));
+        dataDrivenRuns.merge(scenarioKey(type, method), new MethodRun(outcome, durationMillis, methodFingerprint), MethodRun::plus);
+    }
+
+    /**
+     * The rows of a data-driven method in one run: their summed duration, and the outcome of the
+     * worst of them (a failure over a timeout over a pass).
+     */
+    static final class MethodRun {
+
+        final Outcome outcome;
+        final long durationMillis;
+        final String fingerprint;
+
+        MethodRun(Outcome outcome, long durationMillis, String fingerprint) {
+            this.outcome = outcome;
+            this.durationMillis = durationMillis;
+            this.fingerprint = fingerprint;
+        }
+
+        MethodRun plus(MethodRun row) {
+            return new MethodRun(severity(row.outcome) > severity(outcome) ? row.outcome : outcome,
+                    durationMillis + row.durationMillis, fingerprint);
+        }
+
+        private static int severity(Outcome outcome) {
+            return outcome == Outcome.FAILED ? 2 : outcome == Outcome.TIMED_OUT ? 1 : 0;
+        }
+    }
+}
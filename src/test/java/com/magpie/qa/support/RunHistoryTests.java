@@ -0,0 +1,120 @@
+package com.magpie.qa.support;
+
+import com.magpie.qa.QuoteAPITests;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+public class RunHistoryTests {
+
+    private static final long TTL = TimeUnit.HOURS.toMillis(1);
+
+    @Test(description = "SELF-HISTORY-01: Only unchanged, recently passed scenarios are considered up to date")
+    public void testRerunReasons() {
+        RunHistory history = new RunHistory(Paths.get("target", "unused.json"));
+
+        Assert.assertEquals(history.rerunReason("A.a", "f1", TTL), "no previous result");
+        history.record("A.a", Outcome.PASSED, 120, "f1");
+        Assert.assertNull(history.rerunReason("A.a", "f1", TTL));
+        Assert.assertEquals(history.rerunReason("A.a", "f2", TTL), "inputs changed");
+
+        history.record("A.a", Outcome.TIMED_OUT, 30_000, "f1");
+        Assert.assertEquals(history.rerunReason("A.a", "f1", TTL), "last outcome was TIMED_OUT");
+
+        history.record("A.a", Outcome.PASSED, 120, "f1");
+        history.get("A.a").setLastRunEpochMillis(System.currentTimeMillis() - 2 * TTL);
+        Assert.assertNotNull(history.rerunReason("A.a", "f1", TTL));
+    }
+
+    @Test(description = "SELF-HISTORY-02: History survives a save and reload; recent runs weigh most")
+    public void testSaveAndLoad() throws Exception {
+        Path file = Paths.get("target", "history-selftest", "run-history.json");
+        Files.deleteIfExists(file);
+        RunHistory history = new RunHistory(file);
+        history.record("A.a", Outcome.FAILED, 1_000, "f1");
+        history.record("A.a", Outcome.PASSED, 2_000, "f1");
+        history.save();
+
+        RunHistory loaded = RunHistory.load(file);
+        RunHistory.Entry entry = loaded.get("A.a");
+        Assert.assertEquals(entry.getRuns(), 2);
+        Assert.assertEquals(entry.getFailures(), 1);
+        Assert.assertEquals(entry.getLastOutcome(), Outcome.PASSED);
+        Assert.assertEquals(loaded.failureLikelihood("A.a"), 0.7, 1e-9);
+        Assert.assertEquals(loaded.expectedDurationMillis("A.a"), 1_300, 1e-9);
+        Assert.assertNull(loaded.rerunReason("A.a", "f1", TTL));
+        Assert.assertEquals(loaded.failureLikelihood("never.ran"), 0.5, 1e-9);
+    }
+
+    @Test(description = "SELF-HISTORY-03: Fingerprints track the method source, constants, base URI and parameters")
+    public void testFingerprints() {
+        String source = "class X {\n"
+                + "    private static final String NETWORK = \"arbitrum\";\n"
+                + "    public void a() { String s = \"}{\"; if (true) { b(); } }\n"
+                + "    public void a(int i) { }\n"
+                + "    public void b() { }\n"
+                + "}\n";
+        String a = ScenarioFingerprint.methodSource(source, "a");
+        Assert.assertTrue(a.contains("b();") && a.contains("a(int i)"), a);
+        Assert.assertFalse(a.contains("void b()"), a);
+
+        // These hold whether or not the sources are found, e.g. when run outside the project directory
+        String base = ScenarioFingerprint.of(QuoteAPITests.class, "testGetQuoteValidArbitrum", null, "https://one");
+        Assert.assertEquals(ScenarioFingerprint.of(QuoteAPITests.class, "testGetQuoteValidArbitrum", null, "https://one"), base);
+        Assert.assertNotEquals(ScenarioFingerprint.of(QuoteAPITests.class, "testGetQuoteValidEthereum", null, "https://one"), base);
+        Assert.assertNotEquals(ScenarioFingerprint.of(QuoteAPITests.class, "testGetQuoteValidArbitrum", null, "https://two"), base);
+        Assert.assertNotEquals(ScenarioFingerprint.of(QuoteAPITests.class, "testGetQuoteValidArbitrum", new Object[] {"x"}, "https://one"), base);
+        Assert.assertNotEquals(ScenarioFingerprint.of(QuoteAPITests.class, "noSuchMethod", null, "https://one"),
+                ScenarioFingerprint.of(QuoteAPITests.class, "noSuchMethodEither", null, "https://one"),
+                "Methods whose source cannot be isolated still differ by name");
+        Assert.assertNotEquals(ScenarioFingerprint.parametersHash(new Object[] {"x", 1}),
+                ScenarioFingerprint.parametersHash(new Object[] {"x", 2}));
+
+        // Rows are fingerprinted by the request they resolve to, whatever order it was built in
+        QuoteRequest arbitrum = QuoteRequest.quote().param("network", "arbitrum").param("sellAmount", "1").build();
+        QuoteRequest reordered = QuoteRequest.quote().param("sellAmount", "1").param("network", "arbitrum").build();
+        QuoteRequest optimism = QuoteRequest.quote().param("network", "optimism").param("sellAmount", "1").build();
+        Assert.assertEquals(ScenarioFingerprint.of(QuoteAPITests.class, "m", new Object[] {arbitrum}, "https://one"),
+                ScenarioFingerprint.of(QuoteAPITests.class, "m", new Object[] {reordered}, "https://one"));
+        Assert.assertNotEquals(ScenarioFingerprint.of(QuoteAPITests.class, "m", new Object[] {row(arbitrum)}, "https://one"),
+                ScenarioFingerprint.of(QuoteAPITests.class, "m", new Object[] {row(optimism)}, "https://one"));
+    }
+
+    @Test(description = "SELF-HISTORY-04: A data-driven method counts once per run, with the cost of all its rows")
+    public void testDataDrivenMethodRun() {
+        RunHistoryListener.MethodRun run = new RunHistoryListener.MethodRun(Outcome.PASSED, 100, "f1")
+                .plus(new RunHistoryListener.MethodRun(Outcome.TIMED_OUT, 200, "f1"))
+                .plus(new RunHistoryListener.MethodRun(Outcome.FAILED, 300, "f1"))
+                .plus(new RunHistoryListener.MethodRun(Outcome.PASSED, 400, "f1"));
+        Assert.assertEquals(run.outcome, Outcome.FAILED);
+        Assert.assertEquals(run.durationMillis, 1_000);
+
+        RunHistory history = new RunHistory(Paths.get("target", "unused.json"));
+        history.record("A.rows", run.outcome, run.durationMillis, run.fingerprint);
+        Assert.assertEquals(history.get("A.rows").getRuns(), 1);
+        Assert.assertEquals(history.expectedDurationMillis("A.rows"), 1_000, 1e-9);
+        Assert.assertEquals(new RunHistoryListener.MethodRun(Outcome.PASSED, 1, "f1")
+                .plus(new RunHistoryListener.MethodRun(Outcome.TIMED_OUT, 1, "f1")).outcome, Outcome.TIMED_OUT);
+    }
+
+    /**
+     * A row whose label does not change with its request, like a generated scenario's id.
+     */
+    private static ScenarioFingerprint.Input row(QuoteRequest request) {
+        return new ScenarioFingerprint.Input() {
+            @Override
+            public String fingerprintInput() {
+                return request.toCanonicalString();
+            }
+
+            @Override
+            public String toString() {
+                return "GEN-001";
+            }
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package com.magpie.qa.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides the default time budget (-Dscenario.budgetMillis) for one test scenario.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ScenarioBudget {
+
+    long millis();
+}
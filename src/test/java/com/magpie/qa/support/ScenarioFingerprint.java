@@ -0,0 +1,196 @@
+package com.magpie.qa.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hash of the inputs of a scenario: its class and method name, the source of the test method, the {@code static final}
+ * constants of its class (addresses, amounts, endpoints), the whole source of its superclasses
+ * ({@code BaseTest}), the base URI and, for data-driven invocations, the parameters. A parameter that
+ * is a {@link QuoteRequest} or an {@link Input} contributes the request it resolves to, not just its
+ * label, so editing an address or amount in a scenario catalogue changes the rows that use it.
+ * <p>
+ * Other helpers the method calls (support classes, a catalogue read by a non-data-driven method) are
+ * not covered: a change there needs a full run, or an edit to the scenario, to be picked up.
+ * <p>
+ * Sources are read from {@code src/test/java} under the project base directory: {@code basedir} as set
+ * by Maven, or else the project the test classes were compiled into, whatever the working directory.
+ * When they are not available (e.g. running from a jar) the compiled class is hashed instead, which is
+ * coarser: any change to the class then counts as a change to each of its methods.
+ */
+public final class ScenarioFingerprint {
+
+    private static final Path SOURCE_ROOT = sourceRoot();
+    private static final Pattern CONSTANT = Pattern.compile("^\\s*(?:public |protected |private )?static final .*$", Pattern.MULTILINE);
+
+    private static final Map<Class<?>, String> SOURCES = new ConcurrentHashMap<>();
+
+    private ScenarioFingerprint() {
+    }
+
+    /**
+     * A data-provider parameter that can describe everything it will make the scenario send.
+     */
+    public interface Input {
+
+        String fingerprintInput();
+    }
+
+    public static String of(Class<?> type, String methodName, Object[] parameters, String baseUri) {
+        StringBuilder input = new StringBuilder(type.getName()).append('.').append(methodName).append('\n');
+        String source = source(type);
+        input.append(methodSource(source, methodName)).append('\n');
+        Matcher constants = CONSTANT.matcher(source);
+        while (constants.find()) {
+            input.append(constants.group().trim()).append('\n');
+        }
+        for (Class<?> parent = type.getSuperclass(); parent != null && parent != Object.class; parent = parent.getSuperclass()) {
+            input.append(source(parent)).append('\n');
+        }
+        input.append(baseUri).append('\n');
+        if (parameters != null && parameters.length > 0) {
+            for (Object parameter : parameters) {
+                input.append(resolve(parameter)).append('\n');
+            }
+        }
+        return sha256(input.toString()).substring(0, 16);
+    }
+
+    /**
+     * Stable text form of data-provider parameters.
+     */
+    public static String describe(Object[] parameters) {
+        return Arrays.deepToString(parameters);
+    }
+
+    private static String resolve(Object parameter) {
+        if (parameter instanceof Input) {
+            return ((Input) parameter).fingerprintInput();
+        }
+        if (parameter instanceof QuoteRequest) {
+            return ((QuoteRequest) parameter).toCanonicalString();
+        }
+        return Arrays.deepToString(new Object[] {parameter});
+    }
+
+    /**
+     * Short hash of the parameters, used to tell data-driven invocations apart in the run history.
+     */
+    public static String parametersHash(Object[] parameters) {
+        return sha256(describe(parameters)).substring(0, 8);
+    }
+
+    /**
+     * Text of every method called {@code methodName} (all overloads), or the whole source if none is
+     * found.
+     */
+    static String methodSource(String source, String methodName) {
+        Matcher declaration = Pattern.compile("[\\w<>\\[\\]]+\\s+" + Pattern.quote(methodName) + "\\s*\\(").matcher(source);
+        StringBuilder methods = new StringBuilder();
+        while (declaration.find()) {
+            int open = source.indexOf('{', declaration.end());
+            if (open < 0) {
+                break;
+            }
+            int close = matchingBrace(source, open);
+            methods.append(source, declaration.start(), close).append('\n');
+        }
+        return methods.length() == 0 ? source : methods.toString();
+    }
+
+    private static int matchingBrace(String source, int open) {
+        int depth = 0;
+        for (int i = open; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == '"' || c == '\'') {
+                // Skip literals so braces inside JSON strings do not count
+                for (i++; i < source.length() && source.charAt(i) != c; i++) {
+                    if (source.charAt(i) == '\\') {
+                        i++;
+                    }
+                }
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return source.length();
+    }
+
+    private static Path sourceRoot() {
+        String basedir = System.getProperty("basedir");
+        if (basedir != null) {
+            return Paths.get(basedir, "src", "test", "java");
+        }
+        try {
+            // target/test-classes -> project directory
+            Path classes = Paths.get(ScenarioFingerprint.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            Path project = classes.getParent() == null ? null : classes.getParent().getParent();
+            if (project != null && Files.isDirectory(project.resolve("src").resolve("test").resolve("java"))) {
+                return project.resolve("src").resolve("test").resolve("java");
+            }
+        } catch (URISyntaxException | RuntimeException e) {
+            System.out.println("WARN: cannot locate the test sources for fingerprinting: " + e);
+        }
+        return Paths.get("src", "test", "java");
+    }
+
+    private static String source(Class<?> type) {
+        return SOURCES.computeIfAbsent(type, ScenarioFingerprint::readSource);
+    }
+
+    private static String readSource(Class<?> type) {
+        Class<?> outer = type;
+        while (outer.getEnclosingClass() != null) {
+            outer = outer.getEnclosingClass();
+        }
+        Path file = SOURCE_ROOT.resolve(outer.getName().replace('.', '/') + ".java");
+        try {
+            if (Files.isReadable(file)) {
+                return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            }
+            String resource = "/" + type.getName().replace('.', '/') + ".class";
+            try (InputStream in = type.getResourceAsStream(resource)) {
+                if (in != null) {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[8192];
+                    int n;
+                    while ((n = in.read(buffer)) != -1) {
+                        bytes.write(buffer, 0, n);
+                    }
+                    return "class:" + sha256(bytes.toString("ISO-8859-1"));
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("WARN: cannot read source of " + type.getName() + " for fingerprinting: " + e);
+        }
+        return type.getName();
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is always available", e);
+        }
+    }
+}
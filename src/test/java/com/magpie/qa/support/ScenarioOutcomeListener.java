@@ -0,0 +1,98 @@
+package com.magpie.qa.support;
+
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classifies every scenario into an {@link Outcome} and reports timeouts separately from assertion
+ * failures: a summary is printed at the end of the run and every scenario is written to
+ * target/scenario-outcomes.csv.
+ */
+public class ScenarioOutcomeListener implements ITestListener {
+
+    public static final String OUTCOME_ATTRIBUTE = "scenario.outcome";
+
+    private static final Path REPORT = Paths.get("target", "scenario-outcomes.csv");
+
+    private final List<ITestResult> results = new ArrayList<>();
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        Outcome outcome = record(result);
+        if (outcome == Outcome.TIMED_OUT) {
+            System.out.println("TIMED OUT: " + name(result) + " - " + result.getThrowable());
+        }
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        Map<Outcome, Integer> counts = new EnumMap<>(Outcome.class);
+        for (Outcome outcome : Outcome.values()) {
+            counts.put(outcome, 0);
+        }
+        List<ITestResult> snapshot;
+        synchronized (results) {
+            snapshot = new ArrayList<>(results);
+        }
+        for (ITestResult result : snapshot) {
+            Outcome outcome = (Outcome) result.getAttribute(OUTCOME_ATTRIBUTE);
+            counts.put(outcome, counts.get(outcome) + 1);
+        }
+        System.out.println("Scenario outcomes: " + counts.get(Outcome.PASSED) + " passed, "
+                + counts.get(Outcome.FAILED) + " failed, " + counts.get(Outcome.TIMED_OUT) + " timed out, "
+                + counts.get(Outcome.SKIPPED) + " skipped");
+        try {
+            write(snapshot);
+        } catch (IOException e) {
+            System.out.println("WARN: could not write " + REPORT + ": " + e);
+        }
+    }
+
+    private Outcome record(ITestResult result) {
+        Outcome outcome = Outcome.of(result);
+        result.setAttribute(OUTCOME_ATTRIBUTE, outcome);
+        synchronized (results) {
+            results.add(result);
+        }
+        return outcome;
+    }
+
+    private static void write(List<ITestResult> snapshot) throws IOException {
+        Files.createDirectories(REPORT.getParent());
+        try (Writer out = Files.newBufferedWriter(REPORT, StandardCharsets.UTF_8)) {
+            out.write("scenario,outcome,durationMillis,message\n");
+            for (ITestResult result : snapshot) {
+                Throwable failure = result.getThrowable();
+                String message = failure == null ? "" : String.valueOf(failure.getMessage()).replace('"', '\'').replace('\n', ' ');
+                out.write("\"" + name(result) + "\"," + result.getAttribute(OUTCOME_ATTRIBUTE) + ","
+                        + (result.getEndMillis() - result.getStartMillis()) + ",\"" + message + "\"\n");
+            }
+        }
+    }
+
+    private static String name(ITestResult result) {
+        return result.getTestClass().getRealClass().getSimpleName() + "." + result.getMethod().getMethodName();
+    }
+}
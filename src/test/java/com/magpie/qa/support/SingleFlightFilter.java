@@ -0,0 +1,197 @@
+package com.magpie.qa.support;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.http.Cookies;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Single-flight for RestAssured GET requests: while one request is in flight, identical requests from
+ * other threads wait for it instead of opening their own, and each gets its own copy of the response.
+ * Nothing is cached; once the call completes, the next identical request goes upstream again.
+ * <p>
+ * Requests are identical when their {@link #key(String, String) canonical key} matches: scheme, host,
+ * port and path, plus query parameters sorted by name, with addresses in lower case. Only scenarios
+ * that opted in with {@link Coalesce} take part (BaseTest calls {@link #setEnabled(boolean)}), and only
+ * while they run concurrently, i.e. in the {@code parallel} profile. The filter runs before every other filter, so a shared call is checked, recorded and sent exactly once.
+ * A waiter gives up when its own {@link Deadline} expires, whatever the request it waits for does.
+ */
+public class SingleFlightFilter implements OrderedFilter {
+
+    private static final ThreadLocal<Boolean> ENABLED = new ThreadLocal<>();
+    private static final Pattern ADDRESS = Pattern.compile("0x[0-9a-fA-F]{40}");
+
+    private final ConcurrentMap<String, CompletableFuture<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Opts the scenario running on the calling thread in or out.
+     */
+    public static void setEnabled(boolean enabled) {
+        if (enabled) {
+            ENABLED.set(Boolean.TRUE);
+        } else {
+            ENABLED.remove();
+        }
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED.get() != null;
+    }
+
+    @Override
+    public int getOrder() {
+        return HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        if (!isEnabled() || !"GET".equalsIgnoreCase(requestSpec.getMethod())) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+        String key = key(requestSpec.getMethod(), requestSpec.getURI());
+        CompletableFuture<SharedResponse> flight = new CompletableFuture<>();
+        CompletableFuture<SharedResponse> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            return await(key, leader).copy();
+        }
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            // Read the body before publishing, so every waiter gets the complete response
+            flight.complete(new SharedResponse(response));
+            return response;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Canonical form of a request, e.g. "GET http://host:80/aggregator/quote?gasless=false&amp;network=arbitrum".
+     */
+    static String key(String method, String uri) {
+        URI parsed = URI.create(uri);
+        String scheme = parsed.getScheme() == null ? "http" : parsed.getScheme().toLowerCase(Locale.ROOT);
+        int port = parsed.getPort() != -1 ? parsed.getPort() : "https".equals(scheme) ? 443 : 80;
+        List<String[]> params = new ArrayList<>();
+        if (parsed.getRawQuery() != null) {
+            for (String pair : parsed.getRawQuery().split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int eq = pair.indexOf('=');
+                String value = eq < 0 ? "" : decode(pair.substring(eq + 1));
+                if (ADDRESS.matcher(value).matches()) {
+                    value = value.toLowerCase(Locale.ROOT);
+                }
+                params.add(new String[] {decode(eq < 0 ? pair : pair.substring(0, eq)), value});
+            }
+        }
+        // Stable, so the values of a multi-valued parameter keep their order
+        params.sort((a, b) -> a[0].compareTo(b[0]));
+
+        StringBuilder sb = new StringBuilder(method.toUpperCase(Locale.ROOT)).append(' ')
+                .append(scheme).append("://").append(String.valueOf(parsed.getHost()).toLowerCase(Locale.ROOT))
+                .append(':').append(port).append(parsed.getRawPath());
+        char separator = '?';
+        for (String[] param : params) {
+            sb.append(separator).append(encode(param[0])).append('=').append(encode(param[1]));
+            separator = '&';
+        }
+        return sb.toString();
+    }
+
+    private static SharedResponse await(String key, CompletableFuture<SharedResponse> flight) {
+        Deadline deadline = Deadline.current();
+        try {
+            return deadline == null ? flight.get() : flight.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Waiting for in-flight " + key + " exceeded the "
+                    + deadline.getBudgetMillis() + "ms budget", e);
+        } catch (ExecutionException e) {
+            // The waiters fail the way the shared call did, so a skip or timeout keeps its meaning
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight " + key, e);
+        }
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class SharedResponse {
+
+        private final int statusCode;
+        private final String statusLine;
+        private final Headers headers;
+        private final Cookies cookies;
+        private final String contentType;
+        private final byte[] body;
+
+        private SharedResponse(Response response) {
+            this.body = response.asByteArray();
+            this.statusCode = response.getStatusCode();
+            this.statusLine = response.getStatusLine();
+            this.headers = response.getHeaders();
+            this.cookies = response.getDetailedCookies();
+            this.contentType = response.getContentType();
+        }
+
+        /**
+         * A response of its own for one waiter, built from the shared status, headers, cookies and body
+         * only, so that it holds nothing of the leader's client, connection or log state.
+         */
+        private Response copy() {
+            return new ResponseBuilder()
+                    .setStatusCode(statusCode)
+                    .setStatusLine(statusLine)
+                    .setHeaders(headers)
+                    .setCookies(cookies)
+                    .setContentType(contentType)
+                    .setBody(body)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.magpie.qa.support;
+
+import io.restassured.response.Response;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.restassured.RestAssured.given;
+
+public class SingleFlightFilterTests {
+
+    private static final int CALLERS = 6;
+
+    @Test(description = "SELF-SINGLEFLIGHT-01: Parameter order, address case and default ports do not change the key")
+    public void testCanonicalKey() {
+        String key = SingleFlightFilter.key("get", "http://API.example.com/aggregator/quote?network=arbitrum"
+                + "&fromTokenAddress=0x82AF49447D8A07E3BD95BD0D56F35241523FBAB1&liquiditySources=b&liquiditySources=a");
+        Assert.assertEquals(SingleFlightFilter.key("GET", "http://api.example.com:80/aggregator/quote?liquiditySources=b"
+                + "&fromTokenAddress=0x82af49447d8a07e3bd95bd0d56f35241523fbab1&network=arbitrum&liquiditySources=a"), key);
+        Assert.assertEquals(key, "GET http://api.example.com:80/aggregator/quote?fromTokenAddress=0x82af49447d8a07e3bd95bd0d56f35241523fbab1"
+                + "&liquiditySources=b&liquiditySources=a&network=arbitrum");
+        Assert.assertNotEquals(SingleFlightFilter.key("GET", "http://api.example.com/aggregator/quote?network=optimism"),
+                SingleFlightFilter.key("GET", "http://api.example.com/aggregator/quote?network=arbitrum"));
+    }
+
+    @Test(description = "SELF-SINGLEFLIGHT-02: Concurrent identical requests share one upstream call, opted-out ones do not")
+    public void testConcurrentIdenticalRequestsShareOneCall() throws Exception {
+        SingleFlightFilter filter = new SingleFlightFilter();
+        try (StubQuoteServer stub = StubQuoteServer.start()) {
+            stub.setResponseDelayMillis(300);
+
+            List<Response> shared = quoteConcurrently(stub, filter, true);
+            Assert.assertEquals(stub.getRequestCount(), 1);
+            Set<String> ids = new HashSet<>();
+            for (Response response : shared) {
+                Assert.assertEquals(response.getStatusCode(), 200);
+                Assert.assertTrue(response.getContentType().startsWith("application/json"), response.getContentType());
+                Assert.assertEquals(response.jsonPath().getString("resourceEstimate.gasLimit"), "350000");
+                ids.add(response.jsonPath().getString("id"));
+            }
+            Assert.assertEquals(ids.size(), 1, "Every caller should see the one shared quote");
+
+            List<Response> distinct = quoteConcurrently(stub, filter, false);
+            Assert.assertEquals(stub.getRequestCount(), 1 + CALLERS);
+            Assert.assertEquals(distinct.stream().map(r -> r.jsonPath().getString("id")).distinct().count(), CALLERS);
+        }
+    }
+
+    @Test(description = "SELF-SINGLEFLIGHT-03: A waiter gives up at its own deadline while the shared call continues")
+    public void testWaiterHonoursItsDeadline() throws Exception {
+        SingleFlightFilter filter = new SingleFlightFilter();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (StubQuoteServer stub = StubQuoteServer.start()) {
+            stub.setResponseDelayMillis(1_500);
+            CountDownLatch leaderStarted = new CountDownLatch(1);
+            Future<Response> leader = executor.submit(() -> {
+                SingleFlightFilter.setEnabled(true);
+                try {
+                    leaderStarted.countDown();
+                    return quote(stub, filter);
+                } finally {
+                    SingleFlightFilter.setEnabled(false);
+                }
+            });
+            leaderStarted.await();
+            Thread.sleep(200);
+
+            long start = System.nanoTime();
+            SingleFlightFilter.setEnabled(true);
+            Deadline.Scope scope = Deadline.afterMillis(300).enter();
+            try {
+                quote(stub, filter);
+                Assert.fail("Expected the waiter to time out");
+            } catch (DeadlineExceededException e) {
+                Assert.assertTrue(Outcome.isTimeout(e));
+            } finally {
+                scope.close();
+                SingleFlightFilter.setEnabled(false);
+            }
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            Assert.assertTrue(elapsedMs < 800, "Waiter took " + elapsedMs + "ms");
+            Assert.assertEquals(leader.get().getStatusCode(), 200);
+            Assert.assertEquals(stub.getRequestCount(), 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Response> quoteConcurrently(StubQuoteServer stub, SingleFlightFilter filter, boolean coalesce)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Response>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                Callable<Response> call = () -> {
+                    SingleFlightFilter.setEnabled(coalesce);
+                    try {
+                        start.await();
+                        return quote(stub, filter);
+                    } finally {
+                        SingleFlightFilter.setEnabled(false);
+                    }
+                };
+                futures.add(executor.submit(call));
+            }
+            start.countDown();
+            List<Response> responses = new ArrayList<>();
+            for (Future<Response> future : futures) {
+                responses.add(future.get());
+            }
+            return responses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Response quote(StubQuoteServer stub, SingleFlightFilter filter) {
+        return given()
+                .baseUri(stub.getBaseUri())
+                .filter(filter)
+                .param("network", "arbitrum")
+                .param("fromTokenAddress", "0x82af49447d8a07e3bd95bd0d56f35241523fbab1")
+                .param("toTokenAddress", "0xaf88d065e77c8cc2239327c5edb3a432268e5831")
+                .param("sellAmount", "1000000000000000000")
+                .when()
+                .get(QuoteRequest.QUOTE_ENDPOINT);
+    }
+}
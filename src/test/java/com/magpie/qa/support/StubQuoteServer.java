@@ -0,0 +1,192 @@
+package com.magpie.qa.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-process stand-in for the aggregator API, used by the self-tests of the load and resilience
+ * tooling so they never depend on api.magpiefi.xyz. It answers /aggregator/quote and
+ * /aggregator/quote-in with a response shaped like the real one, and a 400 with a Magpie-style
+ * {@code message}/{@code code} body when the network parameter is missing.
+ */
+public class StubQuoteServer implements AutoCloseable {
+
+    static {
+        // Without TCP_NODELAY the JDK server's separate header/body writes hit the ~40ms delayed-ACK stall
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong requestCount = new AtomicLong();
+    private volatile long responseDelayMillis;
+    private volatile long priceRefreshMillis;
+    private volatile Set<String> failingNetworks = Collections.emptySet();
+    private volatile boolean compression;
+
+    private StubQuoteServer(int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext(QuoteRequest.QUOTE_ENDPOINT, exchange -> handle(exchange, "network"));
+        server.createContext(QuoteRequest.QUOTE_IN_ENDPOINT, exchange -> handle(exchange, "fromNetwork"));
+    }
+
+    public static StubQuoteServer start() throws IOException {
+        return start(16);
+    }
+
+    /**
+     * Starts a stub on an ephemeral loopback port that serves at most {@code threads} requests at once.
+     */
+    public static StubQuoteServer start(int threads) throws IOException {
+        StubQuoteServer stub = new StubQuoteServer(threads);
+        stub.server.start();
+        return stub;
+    }
+
+    public String getBaseUri() {
+        return "http://127.0.0.1:" + getPort();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Artificial service time added to every response.
+     */
+    public void setResponseDelayMillis(long responseDelayMillis) {
+        this.responseDelayMillis = responseDelayMillis;
+    }
+
+    /**
+     * Makes amountOut move once every {@code priceRefreshMillis}, like a price feed updating per block.
+     * Zero (the default) keeps amountOut equal to sellAmount.
+     */
+    public void setPriceRefreshMillis(long priceRefreshMillis) {
+        this.priceRefreshMillis = priceRefreshMillis;
+    }
+
+    /**
+     * Answers every request on the given networks (network, fromNetwork or toNetwork) with a 503, as
+     * during an RPC outage of that chain. Call without arguments to heal them.
+     */
+    public void setFailingNetworks(String... networks) {
+        this.failingNetworks = new HashSet<>(Arrays.asList(networks));
+    }
+
+    /**
+     * Gzips response bodies for requests that accept gzip, like the real API. Off by default, so the
+     * fault-injection tests see bodies of a known size.
+     */
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange, String networkParam) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            long delay = responseDelayMillis;
+            if (delay > 0) {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            }
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            if (query.get(networkParam) == null || query.get(networkParam).isEmpty()) {
+                respond(exchange, 400, "{\"message\":\"Wrong parameters: " + networkParam + " is required\",\"code\":2001}");
+            } else if (failingNetworks.contains(query.get(networkParam)) || failingNetworks.contains(query.get("toNetwork"))) {
+                respond(exchange, 503, "{\"message\":\"Network temporarily unavailable\",\"code\":5003}");
+            } else {
+                respond(exchange, 200, quoteBody(query));
+            }
+        } catch (NumberFormatException e) {
+            respond(exchange, 400, "{\"message\":\"Wrong parameters: sellAmount must be a number\",\"code\":2001}");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String quoteBody(Map<String, String> query) {
+        BigInteger amountOut = new BigInteger(query.containsKey("sellAmount") ? query.get("sellAmount") : "1000000000000000000");
+        long refresh = priceRefreshMillis;
+        if (refresh > 0) {
+            amountOut = amountOut.add(BigInteger.valueOf(System.currentTimeMillis() / refresh % 1000));
+        }
+        return "{\"id\":\"" + UUID.randomUUID() + "\","
+                + "\"amountOut\":\"" + amountOut + "\","
+                + "\"targetAddress\":\"0xba7bac71a8ee550d89b827fe6d67bc3dca07b104\","
+                + "\"fees\":[{\"type\":\"gas\",\"value\":\"0.05\"}],"
+                + "\"resourceEstimate\":{\"gasLimit\":\"350000\"},"
+                + "\"typedData\":{\"types\":{},\"domain\":{\"name\":\"Magpie Router\",\"version\":\"3\"},"
+                + "\"message\":{\"router\":\"0xba7bac71a8ee550d89b827fe6d67bc3dca07b104\"}}}";
+    }
+
+    private void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (compression && accept != null && accept.toLowerCase(Locale.ROOT).contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+        Map<String, String> query = new LinkedHashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), "UTF-8");
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+            if (!query.containsKey(name)) {
+                query.put(name, value);
+            }
+        }
+        return query;
+    }
+}
@@ -0,0 +1,48 @@
+package com.magpie.qa.support;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.testng.SkipException;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Skips a scenario at its first request to an endpoint or network that {@link UpstreamHealth} knows
+ * to be down, and reports the outcome of every other request back to it. Requests to other hosts
+ * (local stubs, fault proxies) pass through untouched.
+ */
+public class UpstreamGuardFilter implements Filter {
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        UpstreamHealth health = UpstreamHealth.current();
+        URI uri = URI.create(requestSpec.getURI());
+        if (health == null || !health.appliesTo(uri)) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+
+        Map<String, Object> params = new HashMap<>(requestSpec.getQueryParams());
+        params.putAll(requestSpec.getRequestParams());
+        String endpoint = uri.getPath();
+        String outage = health.outageFor(endpoint, params);
+        if (outage != null) {
+            throw new SkipException("Upstream outage: " + outage);
+        }
+
+        Response response;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+        } catch (RuntimeException e) {
+            health.recordError(endpoint, params, e);
+            throw e;
+        }
+        health.recordResponse(endpoint, params, response.getStatusCode());
+        return response;
+    }
+}
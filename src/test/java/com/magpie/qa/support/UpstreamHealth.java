@@ -0,0 +1,341 @@
+package com.magpie.qa.support;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tracks whether the API, an endpoint or a network is currently broken so that dependent scenarios
+ * can be skipped instead of each timing out on its own.
+ * <p>
+ * Outages are found in two ways. {@link #check(String)} runs a pre-check before the suite: one
+ * request to the host, then a cheap canary quote per network and a quote-in canary, in parallel and
+ * with short timeouts. During the run, {@link UpstreamGuardFilter} reports every request and a
+ * scope is declared down after {@link #FAILURE_THRESHOLD} consecutive failures: transport errors
+ * and 5xx responses count, any other status is a sign of life. An endpoint is only blamed when its
+ * failures span more than one network, and the host only for errors that never reached it.
+ */
+public final class UpstreamHealth {
+
+    public static final int FAILURE_THRESHOLD = Integer.getInteger("upstream.failureThreshold", 3);
+
+    private static final int CHECK_CONNECT_TIMEOUT_MS = 3_000;
+    private static final int CHECK_READ_TIMEOUT_MS = 5_000;
+    private static final String HOST = "host";
+    private static final List<String> NETWORK_PARAMS = Arrays.asList("network", "fromNetwork", "toNetwork");
+
+    private static volatile UpstreamHealth current;
+
+    private final URI baseUri;
+    private final ConcurrentMap<String, String> outages = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Streak> streaks = new ConcurrentHashMap<>();
+
+    private UpstreamHealth(String baseUri) {
+        this.baseUri = URI.create(baseUri);
+    }
+
+    /**
+     * Health of the API the suite runs against, or null when guarding is disabled.
+     */
+    public static UpstreamHealth current() {
+        return current;
+    }
+
+    /**
+     * Replaces {@link #current()}; for self-tests that need the guard pointed at a stub.
+     */
+    static synchronized UpstreamHealth replaceCurrent(UpstreamHealth health) {
+        UpstreamHealth previous = current;
+        current = health;
+        return previous;
+    }
+
+    /**
+     * Runs the pre-check against {@code baseUri} and makes the result {@link #current()}. With
+     * {@code -Dupstream.check=false} nothing is checked or skipped.
+     */
+    public static synchronized UpstreamHealth install(String baseUri) {
+        if (!Boolean.parseBoolean(System.getProperty("upstream.check", "true"))) {
+            current = null;
+            return null;
+        }
+        if (current == null || !current.baseUri.equals(URI.create(baseUri))) {
+            long start = System.nanoTime();
+            current = check(baseUri);
+            System.out.println("INFO: upstream pre-check took " + (System.nanoTime() - start) / 1_000_000 + "ms: "
+                    + (current.getOutages().isEmpty() ? "all healthy" : current.getOutages()));
+        }
+        return current;
+    }
+
+    /**
+     * Probes the host, then every canary in parallel.
+     */
+    public static UpstreamHealth check(String baseUri) {
+        UpstreamHealth health = new UpstreamHealth(baseUri);
+        QuoteClient client = new QuoteClient(baseUri, CHECK_CONNECT_TIMEOUT_MS, CHECK_READ_TIMEOUT_MS);
+
+        QuoteResult root = client.execute(QuoteRequest.to("/").build());
+        if (root.isTransportError()) {
+            health.outages.put(HOST, "pre-check could not reach " + baseUri + ": " + root.getError());
+            return health;
+        }
+
+        List<QuoteRequest> canaries = Canaries.all();
+        ExecutorService executor = Executors.newFixedThreadPool(canaries.size());
+        try {
+            List<Future<String>> failures = new ArrayList<>();
+            for (QuoteRequest canary : canaries) {
+                failures.add(executor.submit(() -> probe(client, canary)));
+            }
+            Map<String, Integer> failedPerEndpoint = new TreeMap<>();
+            Map<String, Integer> totalPerEndpoint = new TreeMap<>();
+            List<QuoteRequest> failed = new ArrayList<>();
+            for (int i = 0; i < canaries.size(); i++) {
+                QuoteRequest canary = canaries.get(i);
+                String failure = failures.get(i).get();
+                totalPerEndpoint.merge(canary.getEndpoint(), 1, Integer::sum);
+                if (failure != null) {
+                    failed.add(canary);
+                    failedPerEndpoint.merge(canary.getEndpoint(), 1, Integer::sum);
+                    // Single-network canaries identify a broken network
+                    List<String> networks = networksOf(canary.getParams());
+                    if (networks.size() == 1) {
+                        health.outages.put(network(networks.get(0)), "pre-check: " + failure);
+                    }
+                }
+            }
+            for (QuoteRequest canary : failed) {
+                String endpoint = canary.getEndpoint();
+                boolean allFailed = failedPerEndpoint.get(endpoint).equals(totalPerEndpoint.get(endpoint))
+                        && totalPerEndpoint.get(endpoint) > 1;
+                boolean networksHealthy = networksOf(canary.getParams()).stream()
+                        .noneMatch(n -> health.outages.containsKey(network(n)));
+                if (allFailed || networksHealthy) {
+                    health.outages.putIfAbsent(endpoint(endpoint), "pre-check: every canary on " + endpoint + " failed");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.out.println("WARN: upstream pre-check did not complete: " + e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return health;
+    }
+
+    /**
+     * Null when the canary looks healthy, otherwise why not. A failed canary is retried once.
+     */
+    private static String probe(QuoteClient client, QuoteRequest canary) {
+        String failure = null;
+        for (int attempt = 0; attempt < 2; attempt++) {
+            QuoteResult result = client.execute(canary);
+            if (result.isTransportError()) {
+                failure = canary.getEndpoint() + " " + networksOf(canary.getParams()) + " failed: " + result.getError();
+            } else if (result.getStatusCode() >= 500) {
+                failure = canary.getEndpoint() + " " + networksOf(canary.getParams()) + " returned " + result.getStatusCode();
+            } else {
+                return null;
+            }
+        }
+        return failure;
+    }
+
+    /**
+     * Whether requests to {@code uri} go to the API this instance guards.
+     */
+    public boolean appliesTo(URI uri) {
+        return baseUri.getHost() != null && baseUri.getHost().equalsIgnoreCase(uri.getHost()) && port(baseUri) == port(uri);
+    }
+
+    /**
+     * Reason a request to {@code endpoint} with the given parameters would hit a known outage, or null.
+     */
+    public String outageFor(String endpoint, Map<String, ?> params) {
+        String reason = outages.get(HOST);
+        if (reason != null) {
+            return "API unreachable (" + reason + ")";
+        }
+        reason = outages.get(endpoint(endpoint));
+        if (reason != null) {
+            return "endpoint " + endpoint + " is down (" + reason + ")";
+        }
+        for (String network : networksOf(params)) {
+            reason = outages.get(network(network));
+            if (reason != null) {
+                return "network " + network + " is down (" + reason + ")";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reason every request would fail, or null when the host is reachable.
+     */
+    public String hostOutage() {
+        String reason = outages.get(HOST);
+        return reason == null ? null : "API unreachable (" + reason + ")";
+    }
+
+    public void recordResponse(String endpoint, Map<String, ?> params, int status) {
+        if (status >= 500) {
+            recordFailure(endpoint, params, "HTTP " + status, false);
+            return;
+        }
+        resetStreak(HOST);
+        resetStreak(endpoint(endpoint));
+        for (String network : networksOf(params)) {
+            resetStreak(network(network));
+        }
+    }
+
+    public void recordError(String endpoint, Map<String, ?> params, Throwable error) {
+        boolean unreachable = false;
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof UnknownHostException || t instanceof ConnectException || t instanceof NoRouteToHostException) {
+                unreachable = true;
+            }
+        }
+        recordFailure(endpoint, params, String.valueOf(error), unreachable);
+    }
+
+    private void recordFailure(String endpoint, Map<String, ?> params, String reason, boolean unreachable) {
+        List<String> networks = networksOf(params);
+        if (unreachable) {
+            fail(HOST, networks, reason, 1);
+            return;
+        }
+        resetStreak(HOST);
+        for (String network : networks) {
+            fail(network(network), networks, reason, 1);
+        }
+        fail(endpoint(endpoint), networks, reason, networks.isEmpty() ? 1 : 2);
+    }
+
+    private void fail(String scope, List<String> networks, String reason, int minNetworks) {
+        Streak streak = streaks.computeIfAbsent(scope, s -> new Streak());
+        synchronized (streak) {
+            streak.count++;
+            streak.networks.addAll(networks);
+            if (streak.count >= FAILURE_THRESHOLD && (networks.isEmpty() || streak.networks.size() >= minNetworks)
+                    && outages.putIfAbsent(scope, streak.count + " consecutive failures, last: " + reason) == null) {
+                System.out.println("WARN: upstream outage detected, skipping dependent scenarios: " + scope
+                        + " (" + outages.get(scope) + ")");
+            }
+        }
+    }
+
+    private void resetStreak(String scope) {
+        Streak streak = streaks.get(scope);
+        if (streak != null) {
+            synchronized (streak) {
+                streak.count = 0;
+                streak.networks.clear();
+            }
+        }
+    }
+
+    /**
+     * Known outages by scope ("host", "endpoint /aggregator/quote", "network arbitrum").
+     */
+    public Map<String, String> getOutages() {
+        return new TreeMap<>(outages);
+    }
+
+    static List<String> networksOf(Map<String, ?> params) {
+        List<String> networks = new ArrayList<>();
+        for (String name : NETWORK_PARAMS) {
+            Object value = params.get(name);
+            if (value instanceof Collection) {
+                for (Object v : (Collection<?>) value) {
+                    addNetwork(networks, v);
+                }
+            } else {
+                addNetwork(networks, value);
+            }
+        }
+        return networks;
+    }
+
+    private static void addNetwork(List<String> networks, Object value) {
+        if (value != null && !String.valueOf(value).isEmpty() && !networks.contains(String.valueOf(value))) {
+            networks.add(String.valueOf(value));
+        }
+    }
+
+    private static String endpoint(String path) {
+        return "endpoint " + path;
+    }
+
+    private static String network(String name) {
+        return "network " + name;
+    }
+
+    private static int port(URI uri) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    private static final class Streak {
+
+        private int count;
+        private final Set<String> networks = new HashSet<>();
+    }
+
+    /**
+     * One cheap, known-good request per network the suite depends on, plus one quote-in route.
+     */
+    private static final class Canaries {
+
+        private static final String DEFAULT_SELL_AMOUNT = "1000000000000000000"; // 1 WETH
+
+        static List<QuoteRequest> all() {
+            return Arrays.asList(
+                    quote("arbitrum", "0x82af49447d8a07e3bd95bd0d56f35241523fbab1", "0xaf88d065e77c8cc2239327c5edb3a432268e5831"),
+                    quote("ethereum", "0xC02aaA39b223FE8D0A0e5C4F27eAD9083C756Cc2", "0xA0b86991c6218b36c1d19D4a2e9Eb0cE3606eB48"),
+                    quote("optimism", "0x4200000000000000000000000000000000000006", "0x0b2c639c533813f4aa9d7837caf626538d76b516"),
+                    quote("polygon", "0x7ceB23fD6bC0adD59E62ac25578270cFf1b9f619", "0x2791Bca1f2de4661ED88A30C99A7a9449Aa84174"),
+                    QuoteRequest.quoteIn()
+                            .param("fromNetwork", "arbitrum")
+                            .param("toNetwork", "optimism")
+                            .param("fromTokenAddress", "0xaf88d065e77c8cc2239327c5edb3a432268e5831")
+                            .param("toTokenAddress", "0x0b2c639c533813f4aa9d7837caf626538d76b516")
+                            .param("sellAmount", "10000000")
+                            .param("slippageIn", 0.5)
+                            .param("slippageOut", 0.5)
+                            .param("gasless", false)
+                            .param("fromAddress", "0xd8dA6BF26964aF9D7eEd9e03E53415D37aA96045")
+                            .param("toAddress", "0xd8dA6BF26964aF9D7eEd9e03E53415D37aA96045")
+                            .build());
+        }
+
+        private static QuoteRequest quote(String network, String from, String to) {
+            return QuoteRequest.quote()
+                    .param("network", network)
+                    .param("fromTokenAddress", from)
+                    .param("toTokenAddress", to)
+                    .param("sellAmount", DEFAULT_SELL_AMOUNT)
+                    .param("slippage", 0.5)
+                    .param("gasless", false)
+                    .build();
+        }
+    }
+}
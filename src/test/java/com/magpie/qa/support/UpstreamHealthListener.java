@@ -0,0 +1,21 @@
+package com.magpie.qa.support;
+
+import com.magpie.qa.BaseTest;
+import io.restassured.RestAssured;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+/**
+ * Checks the API and its networks once before any scenario runs and installs the
+ * {@link UpstreamGuardFilter}; see {@link UpstreamHealth}.
+ */
+public class UpstreamHealthListener implements ISuiteListener {
+
+    @Override
+    public void onStart(ISuite suite) {
+        UpstreamHealth.install(BaseTest.BASE_URI);
+        if (RestAssured.filters().stream().noneMatch(f -> f instanceof UpstreamGuardFilter)) {
+            RestAssured.filters(new UpstreamGuardFilter());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.magpie.qa.support;
+
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.Map;
+
+public class UpstreamHealthTests {
+
+    private StubQuoteServer stub;
+
+    @BeforeClass
+    public void startStub() throws Exception {
+        stub = StubQuoteServer.start();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void healStub() {
+        stub.setFailingNetworks();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        stub.close();
+    }
+
+    @Test(description = "SELF-UPSTREAM-01: The pre-check pins an outage on the broken network only")
+    public void testPreCheckFindsBrokenNetwork() {
+        stub.setFailingNetworks("arbitrum");
+
+        UpstreamHealth health = UpstreamHealth.check(stub.getBaseUri());
+
+        Assert.assertEquals(health.getOutages().keySet(), Collections.singleton("network arbitrum"), health.getOutages().toString());
+        Assert.assertNotNull(health.outageFor(QuoteRequest.QUOTE_ENDPOINT, params("network", "arbitrum")));
+        Assert.assertNotNull(health.outageFor(QuoteRequest.QUOTE_IN_ENDPOINT, params("toNetwork", "arbitrum")));
+        Assert.assertNull(health.outageFor(QuoteRequest.QUOTE_ENDPOINT, params("network", "ethereum")));
+    }
+
+    @Test(description = "SELF-UPSTREAM-02: An unreachable API is detected within the pre-check timeouts")
+    public void testPreCheckFindsUnreachableHost() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+
+        long start = System.nanoTime();
+        UpstreamHealth health = UpstreamHealth.check("http://127.0.0.1:" + closedPort);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        Assert.assertNotNull(health.hostOutage());
+        Assert.assertNotNull(health.outageFor(QuoteRequest.QUOTE_ENDPOINT, params("network", "ethereum")));
+        Assert.assertTrue(elapsedMs < 3_000, "Pre-check took " + elapsedMs + "ms");
+    }
+
+    @Test(description = "SELF-UPSTREAM-03: Consecutive failures during the run open the circuit per network, endpoint and host")
+    public void testRuntimeFailuresDeclareOutages() {
+        UpstreamHealth health = UpstreamHealth.check(stub.getBaseUri());
+        Assert.assertTrue(health.getOutages().isEmpty(), health.getOutages().toString());
+
+        for (int i = 0; i < UpstreamHealth.FAILURE_THRESHOLD; i++) {
+            health.recordResponse(QuoteRequest.QUOTE_ENDPOINT, params("network", "arbitrum"), 502);
+        }
+        Assert.assertNotNull(health.outageFor(QuoteRequest.QUOTE_ENDPOINT, params("network", "arbitrum")));
+        // One broken network does not condemn the whole endpoint
+        Assert.assertNull(health.outageFor(QuoteRequest.QUOTE_ENDPOINT, params("network", "ethereum")));
+
+        for (int i = 0; i < UpstreamHealth.FAILURE_THRESHOLD; i++) {
+            health.recordResponse(QuoteRequest.QUOTE_ENDPOINT, params("network", "ethereum"), 503);
+        }
+        Assert.assertNotNull(health.outageFor(QuoteRequest.QUOTE_ENDPOINT, params("network", "polygon")));
+        Assert.assertNull(health.outageFor(QuoteRequest.QUOTE_IN_ENDPOINT, params("fromNetwork", "polygon")));
+
+        for (int i = 0; i < UpstreamHealth.FAILURE_THRESHOLD; i++) {
+            health.recordError(QuoteRequest.QUOTE_IN_ENDPOINT, params("fromNetwork", "polygon"), new ConnectException("Connection refused"));
+        }
+        Assert.assertNotNull(health.hostOutage());
+    }
+
+    @Test(description = "SELF-UPSTREAM-04: Requests to a network that went down are skipped with the reason")
+    public void testFilterSkipsDependentRequests() {
+        UpstreamHealth health = UpstreamHealth.check(stub.getBaseUri());
+        UpstreamHealth previous = UpstreamHealth.replaceCurrent(health);
+        Filter guard = new UpstreamGuardFilter();
+        try {
+            stub.setFailingNetworks("arbitrum");
+            for (int i = 0; i < UpstreamHealth.FAILURE_THRESHOLD; i++) {
+                RestAssured.given().baseUri(stub.getBaseUri()).filter(guard).param("network", "arbitrum")
+                        .get(QuoteRequest.QUOTE_ENDPOINT).then().statusCode(503);
+            }
+            long requests = stub.getRequestCount();
+            try {
+                RestAssured.given().baseUri(stub.getBaseUri()).filter(guard).param("network", "arbitrum")
+                        .get(QuoteRequest.QUOTE_ENDPOINT);
+                Assert.fail("Expected the request to be skipped");
+            } catch (SkipException e) {
+                Assert.assertTrue(e.getMessage().contains("network arbitrum"), e.getMessage());
+            }
+            Assert.assertEquals(stub.getRequestCount(), requests, "A skipped request still reached the API");
+
+            RestAssured.given().baseUri(stub.getBaseUri()).filter(guard).param("network", "ethereum")
+                    .get(QuoteRequest.QUOTE_ENDPOINT).then().statusCode(200);
+        } finally {
+            UpstreamHealth.replaceCurrent(previous);
+        }
+    }
+
+    private static Map<String, Object> params(String name, String value) {
+        return Collections.singletonMap(name, value);
+    }
+}